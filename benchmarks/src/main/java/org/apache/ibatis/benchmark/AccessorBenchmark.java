@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading and writing all properties of a 30 column bean, with reflective and with generated accessors.
+ * <code>writeRow</code> is what result mapping does per row, <code>readRow</code> what parameter binding through a
+ * <code>MetaObject</code> does and <code>readRowWithInvokers</code> what a parameter binding plan does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessorBenchmark {
+
+  @Param({ "reflection", "generated" })
+  public String accessors;
+
+  private Configuration configuration;
+  private String[] properties;
+  private Object[] values;
+  private Invoker[] getters;
+  private WideRow row;
+
+  @Setup
+  public void setUp() {
+    configuration = new Configuration();
+    configuration.setGenerateAccessors("generated".equals(accessors));
+    properties = new String[30];
+    values = new Object[30];
+    for (int i = 0; i < 30; i++) {
+      properties[i] = String.format("column%02d", i + 1);
+      values[i] = i % 3 == 0 ? Integer.valueOf(i) : i % 3 == 1 ? "value " + i : Long.valueOf(i);
+    }
+    Reflector reflector = configuration.getReflectorFactory().findForClass(WideRow.class);
+    getters = new Invoker[30];
+    for (int i = 0; i < 30; i++) {
+      getters[i] = reflector.getGetInvoker(properties[i]);
+    }
+    row = writeRow();
+  }
+
+  @Benchmark
+  public WideRow writeRow() {
+    WideRow row = new WideRow();
+    MetaObject metaObject = configuration.newMetaObject(row);
+    for (int i = 0; i < properties.length; i++) {
+      metaObject.setValue(properties[i], values[i]);
+    }
+    return row;
+  }
+
+  @Benchmark
+  public void readRow(Blackhole blackhole) {
+    MetaObject metaObject = configuration.newMetaObject(row);
+    for (String property : properties) {
+      blackhole.consume(metaObject.getValue(property));
+    }
+  }
+
+  @Benchmark
+  public void readRowWithInvokers(Blackhole blackhole) throws Exception {
+    for (Invoker getter : getters) {
+      blackhole.consume(getter.invoke(row, null));
+    }
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+
+/**
+ * Builds the {@link SqlSessionFactory} shared by the benchmarks and fills the in-memory HSQLDB database.
+ */
+public final class BenchmarkDatabase {
+
+  public static final int AUTHORS = 100;
+  public static final int POSTS_PER_AUTHOR = 5;
+
+  private BenchmarkDatabase() {
+    // Prevent Instantiation
+  }
+
+  public static SqlSessionFactory createSqlSessionFactory() throws IOException, SQLException {
+    SqlSessionFactory sqlSessionFactory;
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/benchmark/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    populate(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource());
+    return sqlSessionFactory;
+  }
+
+  private static void populate(DataSource dataSource) throws IOException, SQLException {
+    try (Connection connection = dataSource.getConnection();
+         Reader reader = Resources.getResourceAsReader("org/apache/ibatis/benchmark/CreateDB.sql")) {
+      ScriptRunner runner = new ScriptRunner(connection);
+      runner.setAutoCommit(true);
+      runner.setStopOnError(true);
+      runner.setLogWriter(null);
+      runner.runScript(reader);
+
+      connection.setAutoCommit(false);
+      try (PreparedStatement author = connection.prepareStatement("insert into author (id, username, email, bio) values (?, ?, ?, ?)");
+           PreparedStatement post = connection.prepareStatement("insert into post (id, author_id, subject, body) values (?, ?, ?, ?)")) {
+        for (int i = 1; i <= AUTHORS; i++) {
+          author.setInt(1, i);
+          author.setString(2, "user" + i);
+          author.setString(3, "user" + i + "@example.com");
+          author.setString(4, "Biography of user" + i);
+          author.addBatch();
+          for (int j = 1; j <= POSTS_PER_AUTHOR; j++) {
+            post.setInt(1, i * POSTS_PER_AUTHOR + j);
+            post.setInt(2, i);
+            post.setString(3, "Subject " + j + " by user" + i);
+            post.setString(4, "Body " + j + " by user" + i);
+            post.addBatch();
+          }
+        }
+        author.executeBatch();
+        post.executeBatch();
+      }
+      connection.commit();
+    }
+  }
+
+}
@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.ConcurrentLruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contended access to a namespace cache as built by {@link CacheBuilder}: the default {@code PerpetualCache},
+ * {@code LruCache} and {@code SynchronizedCache} stack against {@link ConcurrentLruCache}. Use {@code -t} to change
+ * the number of threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+  private static final int SIZE = 1024;
+
+  @Param({ "LRU", "CONCURRENT_LRU" })
+  private String type;
+
+  private Cache cache;
+  private CacheKey[] keys;
+
+  @Setup
+  public void setUp() {
+    CacheBuilder builder = new CacheBuilder("benchmark").size(SIZE).addDecorator(LruCache.class);
+    builder.implementation("LRU".equals(type) ? PerpetualCache.class : ConcurrentLruCache.class);
+    cache = builder.build();
+    // twice the capacity so that writes evict
+    keys = new CacheKey[SIZE * 2];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new CacheKey(new Object[] { "org.apache.ibatis.benchmark.AuthorMapper.selectAuthor", i });
+      if (i < SIZE) {
+        cache.putObject(keys[i], i);
+      }
+    }
+  }
+
+  @Benchmark
+  public Object get() {
+    return cache.getObject(keys[ThreadLocalRandom.current().nextInt(SIZE)]);
+  }
+
+  @Benchmark
+  public Object getAndPut() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    CacheKey key = keys[random.nextInt(keys.length)];
+    if (random.nextInt(10) == 0) {
+      cache.putObject(key, key);
+      return key;
+    }
+    return cache.getObject(key);
+  }
+
+}
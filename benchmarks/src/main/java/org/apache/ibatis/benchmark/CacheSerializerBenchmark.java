@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
+import org.apache.ibatis.cache.serializer.ReflectorCacheSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization round trip of a cached result list of 20 authors with 5 posts each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+
+  @Param({ "java", "reflector" })
+  public String serializerType;
+
+  private CacheSerializer serializer;
+  private ArrayList<Author> authors;
+  private byte[] bytes;
+
+  @Setup
+  public void setUp() {
+    serializer = "java".equals(serializerType) ? new JavaCacheSerializer() : new ReflectorCacheSerializer();
+    authors = new ArrayList<>();
+    for (int i = 1; i <= 20; i++) {
+      Author author = new Author();
+      author.setId(i);
+      author.setUsername("author" + i);
+      author.setEmail("author" + i + "@example.com");
+      author.setBio("bio of author " + i);
+      ArrayList<Post> posts = new ArrayList<>();
+      for (int j = 1; j <= 5; j++) {
+        posts.add(new Post(i * 10 + j, i, "subject " + j, "body of post " + j + " by author " + i));
+      }
+      author.setPosts(posts);
+      authors.add(author);
+    }
+    bytes = serializer.serialize(authors);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return serializer.serialize(authors);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(bytes);
+  }
+
+}
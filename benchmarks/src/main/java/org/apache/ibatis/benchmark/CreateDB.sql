@@ -0,0 +1,32 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table post if exists;
+drop table author if exists;
+
+create table author (
+  id int not null primary key,
+  username varchar(255) not null,
+  email varchar(255) not null,
+  bio varchar(1024)
+);
+
+create table post (
+  id int not null primary key,
+  author_id int not null,
+  subject varchar(255) not null,
+  body varchar(4096)
+);
@@ -0,0 +1,150 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.builder.xml.MapperDocumentSnapshot;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a configuration with a synthetic corpus of 1,000 mapper XML files, each with a result map, an SQL fragment
+ * and four statements. The mappers are parsed one by one, parsed in parallel (<code>parallelMapperParsing</code>) or
+ * read from a {@link MapperDocumentSnapshot} (<code>mapperDocumentSnapshot</code>).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperParsingBenchmark {
+
+  private static final int MAPPERS = 1000;
+
+  @Param({ "sequential", "parallel", "snapshot" })
+  public String source;
+
+  private Path directory;
+  private ClassLoader defaultClassLoader;
+  private URLClassLoader corpusClassLoader;
+  private String config;
+
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("mybatis-mappers");
+    Files.createDirectories(directory.resolve("bench"));
+    StringBuilder mappers = new StringBuilder("  <mappers>\n");
+    for (int i = 0; i < MAPPERS; i++) {
+      Files.write(directory.resolve("bench/Mapper" + i + ".xml"), mapper(i).getBytes(StandardCharsets.UTF_8));
+      mappers.append("    <mapper resource=\"bench/Mapper").append(i).append(".xml\"/>\n");
+    }
+    mappers.append("  </mappers>\n");
+    Files.write(directory.resolve("bench/mybatis-config.xml"), config("", mappers).getBytes(StandardCharsets.UTF_8));
+
+    defaultClassLoader = Resources.getDefaultClassLoader();
+    corpusClassLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, getClass().getClassLoader());
+    Resources.setDefaultClassLoader(corpusClassLoader);
+    MapperDocumentSnapshot.main(new String[] { "bench/mybatis-config.xml", directory.resolve("mappers.snapshot").toString() });
+
+    String settings = "";
+    if ("parallel".equals(source)) {
+      settings = "    <setting name=\"parallelMapperParsing\" value=\"true\"/>\n";
+    } else if ("snapshot".equals(source)) {
+      settings = "    <setting name=\"mapperDocumentSnapshot\" value=\"mappers.snapshot\"/>\n";
+    }
+    config = config(settings, mappers);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Resources.setDefaultClassLoader(defaultClassLoader);
+    corpusClassLoader.close();
+  }
+
+  @Benchmark
+  public Configuration buildConfiguration() {
+    return new XMLConfigBuilder(new StringReader(config)).parse();
+  }
+
+  private static String config(String settings, CharSequence mappers) {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + (settings.isEmpty() ? "" : "  <settings>\n" + settings + "  </settings>\n")
+        + mappers
+        + "</configuration>\n";
+  }
+
+  private static String mapper(int i) {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + "<mapper namespace=\"bench.Mapper" + i + "\">\n"
+        + "  <resultMap id=\"row\" type=\"map\">\n"
+        + "    <id property=\"id\" column=\"id\"/>\n"
+        + "    <result property=\"name\" column=\"name\"/>\n"
+        + "    <result property=\"amount\" column=\"amount\" javaType=\"long\"/>\n"
+        + "    <result property=\"updatedOn\" column=\"updated_on\" javaType=\"java.util.Date\"/>\n"
+        + "  </resultMap>\n"
+        + "  <sql id=\"columns\">id, name, amount, updated_on</sql>\n"
+        + "  <select id=\"select\" parameterType=\"map\" resultMap=\"row\">\n"
+        + "    select <include refid=\"columns\"/> from table_" + i + "\n"
+        + "    <where>\n"
+        + "      <if test=\"id != null\">id = #{id}</if>\n"
+        + "      <if test=\"name != null\">and name like #{name}</if>\n"
+        + "      <if test=\"ids != null\">and id in\n"
+        + "        <foreach collection=\"ids\" item=\"item\" open=\"(\" separator=\",\" close=\")\">#{item}</foreach>\n"
+        + "      </if>\n"
+        + "    </where>\n"
+        + "    order by id\n"
+        + "  </select>\n"
+        + "  <insert id=\"insert\" parameterType=\"map\">\n"
+        + "    insert into table_" + i + " (<include refid=\"columns\"/>) values (#{id}, #{name}, #{amount}, #{updatedOn})\n"
+        + "  </insert>\n"
+        + "  <update id=\"update\" parameterType=\"map\">\n"
+        + "    update table_" + i + "\n"
+        + "    <set>\n"
+        + "      <if test=\"name != null\">name = #{name},</if>\n"
+        + "      <if test=\"amount != null\">amount = #{amount},</if>\n"
+        + "    </set>\n"
+        + "    where id = #{id}\n"
+        + "  </update>\n"
+        + "  <delete id=\"delete\" parameterType=\"map\">delete from table_" + i + " where id = #{id}</delete>\n"
+        + "</mapper>\n";
+  }
+
+}
@@ -0,0 +1,294 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+/**
+ * A row of 30 columns, the width of a typical reporting or batch insert bean.
+ */
+public class WideRow {
+
+  private Integer column01;
+  private String column02;
+  private Long column03;
+  private Integer column04;
+  private String column05;
+  private Long column06;
+  private Integer column07;
+  private String column08;
+  private Long column09;
+  private Integer column10;
+  private String column11;
+  private Long column12;
+  private Integer column13;
+  private String column14;
+  private Long column15;
+  private Integer column16;
+  private String column17;
+  private Long column18;
+  private Integer column19;
+  private String column20;
+  private Long column21;
+  private Integer column22;
+  private String column23;
+  private Long column24;
+  private Integer column25;
+  private String column26;
+  private Long column27;
+  private Integer column28;
+  private String column29;
+  private Long column30;
+
+  public Integer getColumn01() {
+    return column01;
+  }
+
+  public void setColumn01(Integer column01) {
+    this.column01 = column01;
+  }
+
+  public String getColumn02() {
+    return column02;
+  }
+
+  public void setColumn02(String column02) {
+    this.column02 = column02;
+  }
+
+  public Long getColumn03() {
+    return column03;
+  }
+
+  public void setColumn03(Long column03) {
+    this.column03 = column03;
+  }
+
+  public Integer getColumn04() {
+    return column04;
+  }
+
+  public void setColumn04(Integer column04) {
+    this.column04 = column04;
+  }
+
+  public String getColumn05() {
+    return column05;
+  }
+
+  public void setColumn05(String column05) {
+    this.column05 = column05;
+  }
+
+  public Long getColumn06() {
+    return column06;
+  }
+
+  public void setColumn06(Long column06) {
+    this.column06 = column06;
+  }
+
+  public Integer getColumn07() {
+    return column07;
+  }
+
+  public void setColumn07(Integer column07) {
+    this.column07 = column07;
+  }
+
+  public String getColumn08() {
+    return column08;
+  }
+
+  public void setColumn08(String column08) {
+    this.column08 = column08;
+  }
+
+  public Long getColumn09() {
+    return column09;
+  }
+
+  public void setColumn09(Long column09) {
+    this.column09 = column09;
+  }
+
+  public Integer getColumn10() {
+    return column10;
+  }
+
+  public void setColumn10(Integer column10) {
+    this.column10 = column10;
+  }
+
+  public String getColumn11() {
+    return column11;
+  }
+
+  public void setColumn11(String column11) {
+    this.column11 = column11;
+  }
+
+  public Long getColumn12() {
+    return column12;
+  }
+
+  public void setColumn12(Long column12) {
+    this.column12 = column12;
+  }
+
+  public Integer getColumn13() {
+    return column13;
+  }
+
+  public void setColumn13(Integer column13) {
+    this.column13 = column13;
+  }
+
+  public String getColumn14() {
+    return column14;
+  }
+
+  public void setColumn14(String column14) {
+    this.column14 = column14;
+  }
+
+  public Long getColumn15() {
+    return column15;
+  }
+
+  public void setColumn15(Long column15) {
+    this.column15 = column15;
+  }
+
+  public Integer getColumn16() {
+    return column16;
+  }
+
+  public void setColumn16(Integer column16) {
+    this.column16 = column16;
+  }
+
+  public String getColumn17() {
+    return column17;
+  }
+
+  public void setColumn17(String column17) {
+    this.column17 = column17;
+  }
+
+  public Long getColumn18() {
+    return column18;
+  }
+
+  public void setColumn18(Long column18) {
+    this.column18 = column18;
+  }
+
+  public Integer getColumn19() {
+    return column19;
+  }
+
+  public void setColumn19(Integer column19) {
+    this.column19 = column19;
+  }
+
+  public String getColumn20() {
+    return column20;
+  }
+
+  public void setColumn20(String column20) {
+    this.column20 = column20;
+  }
+
+  public Long getColumn21() {
+    return column21;
+  }
+
+  public void setColumn21(Long column21) {
+    this.column21 = column21;
+  }
+
+  public Integer getColumn22() {
+    return column22;
+  }
+
+  public void setColumn22(Integer column22) {
+    this.column22 = column22;
+  }
+
+  public String getColumn23() {
+    return column23;
+  }
+
+  public void setColumn23(String column23) {
+    this.column23 = column23;
+  }
+
+  public Long getColumn24() {
+    return column24;
+  }
+
+  public void setColumn24(Long column24) {
+    this.column24 = column24;
+  }
+
+  public Integer getColumn25() {
+    return column25;
+  }
+
+  public void setColumn25(Integer column25) {
+    this.column25 = column25;
+  }
+
+  public String getColumn26() {
+    return column26;
+  }
+
+  public void setColumn26(String column26) {
+    this.column26 = column26;
+  }
+
+  public Long getColumn27() {
+    return column27;
+  }
+
+  public void setColumn27(Long column27) {
+    this.column27 = column27;
+  }
+
+  public Integer getColumn28() {
+    return column28;
+  }
+
+  public void setColumn28(Integer column28) {
+    this.column28 = column28;
+  }
+
+  public String getColumn29() {
+    return column29;
+  }
+
+  public void setColumn29(String column29) {
+    this.column29 = column29;
+  }
+
+  public Long getColumn30() {
+    return column30;
+  }
+
+  public void setColumn30(Long column30) {
+    this.column30 = column30;
+  }
+
+}
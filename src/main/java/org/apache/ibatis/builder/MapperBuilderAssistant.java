@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.executor.ErrorContext;
@@ -69,6 +70,10 @@ public class MapperBuilderAssistant extends BaseBuilder {
     return currentNamespace;
   }
 
+  public String getResource() {
+    return resource;
+  }
+
   public void setCurrentNamespace(String currentNamespace) {
     if (currentNamespace == null) {
       throw new BuilderException("The mapper element requires a namespace attribute to be specified.");
@@ -135,6 +140,7 @@ public class MapperBuilderAssistant extends BaseBuilder {
         .size(size)
         .readWrite(readWrite)
         .blocking(blocking)
+        .serializer(resolveCacheSerializer(props))
         .properties(props)
         .build();
     configuration.addCache(cache);
@@ -142,6 +148,11 @@ public class MapperBuilderAssistant extends BaseBuilder {
     return cache;
   }
 
+  private CacheSerializer resolveCacheSerializer(Properties props) {
+    String serializer = props == null ? null : props.getProperty("serializer");
+    return serializer == null ? configuration.getCacheSerializer() : (CacheSerializer) createInstance(serializer);
+  }
+
   public ParameterMap addParameterMap(String id, Class<?> parameterClass, List<ParameterMapping> parameterMappings) {
     id = applyCurrentNamespace(id, false);
     ParameterMap parameterMap = new ParameterMap.Builder(configuration, id, parameterClass, parameterMappings).build();
@@ -41,7 +41,7 @@ public class SqlSourceBuilder extends BaseBuilder {
   }
 
   public SqlSource parse(String originalSql, Class<?> parameterType, Map<String, Object> additionalParameters) {
-    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType, additionalParameters);
+    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(parameterType, additionalParameters);
     GenericTokenParser parser = new GenericTokenParser("#{", "}", handler);
     String sql;
     if (configuration.isShrinkWhitespacesInSql()) {
@@ -66,14 +66,114 @@ public class SqlSourceBuilder extends BaseBuilder {
     return builder.toString();
   }
 
-  private static class ParameterMappingTokenHandler extends BaseBuilder implements TokenHandler {
+  /**
+   * Parses the content of a <code>#{}</code> placeholder into its property and attributes.
+   *
+   * @param content
+   *          the placeholder content, without the enclosing <code>#{</code> and <code>}</code>
+   * @return the parsed property and attributes
+   * @since 3.5.7
+   */
+  public static Map<String, String> parseParameterMapping(String content) {
+    try {
+      return new ParameterExpression(content);
+    } catch (BuilderException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new BuilderException("Parsing error was found in mapping #{" + content + "}.  Check syntax #{property|(expression), var1=value1, var2=value2, ...} ", ex);
+    }
+  }
+
+  /**
+   * Resolves the java type of a placeholder property the same way {@link #parse(String, Class, Map)} does.
+   *
+   * @param property
+   *          the property the placeholder refers to
+   * @param propertiesMap
+   *          the attributes returned by {@link #parseParameterMapping(String)}
+   * @param parameterType
+   *          the type of the parameter object
+   * @param metaParameters
+   *          the additional parameters
+   * @return the property type
+   * @since 3.5.7
+   */
+  public Class<?> resolvePropertyType(String property, Map<String, String> propertiesMap, Class<?> parameterType, MetaObject metaParameters) {
+    if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
+      return metaParameters.getGetterType(property);
+    } else if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
+      return parameterType;
+    } else if (JdbcType.CURSOR.name().equals(propertiesMap.get("jdbcType"))) {
+      return java.sql.ResultSet.class;
+    } else if (property == null || Map.class.isAssignableFrom(parameterType)) {
+      return Object.class;
+    } else {
+      MetaClass metaClass = MetaClass.forClass(parameterType, configuration.getReflectorFactory());
+      if (metaClass.hasGetter(property)) {
+        return metaClass.getGetterType(property);
+      } else {
+        return Object.class;
+      }
+    }
+  }
+
+  /**
+   * Builds the mapping of a placeholder that has already been parsed.
+   *
+   * @param content
+   *          the placeholder content, only used in error messages
+   * @param property
+   *          the property, which may differ from the parsed one when a <code>foreach</code> renamed it
+   * @param propertiesMap
+   *          the attributes returned by {@link #parseParameterMapping(String)}
+   * @param propertyType
+   *          the type returned by {@link #resolvePropertyType(String, Map, Class, MetaObject)}
+   * @return the parameter mapping
+   * @since 3.5.7
+   */
+  public ParameterMapping buildParameterMapping(String content, String property, Map<String, String> propertiesMap, Class<?> propertyType) {
+    ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
+    Class<?> javaType = propertyType;
+    String typeHandlerAlias = null;
+    for (Map.Entry<String, String> entry : propertiesMap.entrySet()) {
+      String name = entry.getKey();
+      String value = entry.getValue();
+      if ("javaType".equals(name)) {
+        javaType = resolveClass(value);
+        builder.javaType(javaType);
+      } else if ("jdbcType".equals(name)) {
+        builder.jdbcType(resolveJdbcType(value));
+      } else if ("mode".equals(name)) {
+        builder.mode(resolveParameterMode(value));
+      } else if ("numericScale".equals(name)) {
+        builder.numericScale(Integer.valueOf(value));
+      } else if ("resultMap".equals(name)) {
+        builder.resultMapId(value);
+      } else if ("typeHandler".equals(name)) {
+        typeHandlerAlias = value;
+      } else if ("jdbcTypeName".equals(name)) {
+        builder.jdbcTypeName(value);
+      } else if ("property".equals(name)) {
+        // Do Nothing
+      } else if ("expression".equals(name)) {
+        throw new BuilderException("Expression based parameters are not supported yet");
+      } else {
+        throw new BuilderException("An invalid property '" + name + "' was found in mapping #{" + content + "}.  Valid properties are " + PARAMETER_PROPERTIES);
+      }
+    }
+    if (typeHandlerAlias != null) {
+      builder.typeHandler(resolveTypeHandler(javaType, typeHandlerAlias));
+    }
+    return builder.build();
+  }
+
+  private class ParameterMappingTokenHandler implements TokenHandler {
 
     private List<ParameterMapping> parameterMappings = new ArrayList<>();
     private Class<?> parameterType;
     private MetaObject metaParameters;
 
-    public ParameterMappingTokenHandler(Configuration configuration, Class<?> parameterType, Map<String, Object> additionalParameters) {
-      super(configuration);
+    public ParameterMappingTokenHandler(Class<?> parameterType, Map<String, Object> additionalParameters) {
       this.parameterType = parameterType;
       this.metaParameters = configuration.newMetaObject(additionalParameters);
     }
@@ -91,66 +191,8 @@ public class SqlSourceBuilder extends BaseBuilder {
     private ParameterMapping buildParameterMapping(String content) {
       Map<String, String> propertiesMap = parseParameterMapping(content);
       String property = propertiesMap.get("property");
-      Class<?> propertyType;
-      if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
-        propertyType = metaParameters.getGetterType(property);
-      } else if (typeHandlerRegistry.hasTypeHandler(parameterType)) {
-        propertyType = parameterType;
-      } else if (JdbcType.CURSOR.name().equals(propertiesMap.get("jdbcType"))) {
-        propertyType = java.sql.ResultSet.class;
-      } else if (property == null || Map.class.isAssignableFrom(parameterType)) {
-        propertyType = Object.class;
-      } else {
-        MetaClass metaClass = MetaClass.forClass(parameterType, configuration.getReflectorFactory());
-        if (metaClass.hasGetter(property)) {
-          propertyType = metaClass.getGetterType(property);
-        } else {
-          propertyType = Object.class;
-        }
-      }
-      ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
-      Class<?> javaType = propertyType;
-      String typeHandlerAlias = null;
-      for (Map.Entry<String, String> entry : propertiesMap.entrySet()) {
-        String name = entry.getKey();
-        String value = entry.getValue();
-        if ("javaType".equals(name)) {
-          javaType = resolveClass(value);
-          builder.javaType(javaType);
-        } else if ("jdbcType".equals(name)) {
-          builder.jdbcType(resolveJdbcType(value));
-        } else if ("mode".equals(name)) {
-          builder.mode(resolveParameterMode(value));
-        } else if ("numericScale".equals(name)) {
-          builder.numericScale(Integer.valueOf(value));
-        } else if ("resultMap".equals(name)) {
-          builder.resultMapId(value);
-        } else if ("typeHandler".equals(name)) {
-          typeHandlerAlias = value;
-        } else if ("jdbcTypeName".equals(name)) {
-          builder.jdbcTypeName(value);
-        } else if ("property".equals(name)) {
-          // Do Nothing
-        } else if ("expression".equals(name)) {
-          throw new BuilderException("Expression based parameters are not supported yet");
-        } else {
-          throw new BuilderException("An invalid property '" + name + "' was found in mapping #{" + content + "}.  Valid properties are " + PARAMETER_PROPERTIES);
-        }
-      }
-      if (typeHandlerAlias != null) {
-        builder.typeHandler(resolveTypeHandler(javaType, typeHandlerAlias));
-      }
-      return builder.build();
-    }
-
-    private Map<String, String> parseParameterMapping(String content) {
-      try {
-        return new ParameterExpression(content);
-      } catch (BuilderException ex) {
-        throw ex;
-      } catch (Exception ex) {
-        throw new BuilderException("Parsing error was found in mapping #{" + content + "}.  Check syntax #{property|(expression), var1=value1, var2=value2, ...} ", ex);
-      }
+      Class<?> propertyType = resolvePropertyType(property, propertiesMap, parameterType, metaParameters);
+      return SqlSourceBuilder.this.buildParameterMapping(content, property, propertiesMap, propertyType);
     }
   }
 
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * A statement of a mapper XML file that is built on first use, when the <code>lazyStatementBuilding</code> setting is
+ * enabled. It retains a copy of the statement element, in a document of its own, until
+ * {@link Configuration#getMappedStatement(String)} asks for it; the configuration builds it once, from one thread at a
+ * time. The copy does not keep the document of the mapper file reachable, but the <code>sql</code> fragments of the
+ * file do: {@link Configuration#getSqlFragments()} holds them as nodes of that document, so it can only be collected
+ * when the file declares none.
+ *
+ * @since 3.5.7
+ */
+public class LazyStatement {
+
+  private final String id;
+  private final String databaseId;
+  private final Configuration configuration;
+  private final MapperBuilderAssistant builderAssistant;
+  private final String requiredDatabaseId;
+  private Node statementElement;
+
+  LazyStatement(String id, String databaseId, Configuration configuration, MapperBuilderAssistant builderAssistant,
+      Node statementElement, String requiredDatabaseId) {
+    this.id = id;
+    this.databaseId = databaseId;
+    this.configuration = configuration;
+    this.builderAssistant = builderAssistant;
+    this.requiredDatabaseId = requiredDatabaseId;
+    final Document document = statementElement.getOwnerDocument().getImplementation().createDocument(null, null, null);
+    this.statementElement = document.appendChild(document.importNode(statementElement, true));
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getDatabaseId() {
+    return databaseId;
+  }
+
+  public String getResource() {
+    return builderAssistant.getResource();
+  }
+
+  /**
+   * Builds the mapped statement and its select keys, and adds them to the configuration. The statement element is
+   * released once it is built; a build that fails can be attempted again, as the element is not changed.
+   */
+  public void build() {
+    if (statementElement == null) {
+      return;
+    }
+    ErrorContext.instance().store();
+    try {
+      // includes and select keys are applied to a copy
+      final XPathParser parser = new XPathParser(statementElement.getOwnerDocument(), false, configuration.getVariables());
+      final XNode context = new XNode(parser, statementElement.cloneNode(true), configuration.getVariables());
+      new XMLStatementBuilder(configuration, builderAssistant, context, requiredDatabaseId).buildStatementNode();
+    } catch (Exception e) {
+      throw new BuilderException("Error building the statement '" + id + "' of Mapper XML '" + getResource() + "'. Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().recall();
+    }
+    statementElement = null;
+  }
+
+}
@@ -0,0 +1,335 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Mapper XML documents that were parsed and validated ahead of time, stored in a compact binary form.
+ * <p>
+ * A snapshot is written at build time, for example with {@link #main(String[])}, and named by the
+ * <code>mapperDocumentSnapshot</code> setting. When the configuration is built, the mappers listed by resource or url
+ * that are in the snapshot are read from it as DOM documents, without parsing and validating their XML; the other
+ * mappers are parsed as usual. The documents keep their <code>${}</code> placeholders, which are resolved with the
+ * variables of the configuration as before.
+ * <p>
+ * The snapshot holds the size and the CRC-32 of each mapper file it was written from. A document is only taken from the
+ * snapshot when the mapper file still has the same contents, so the file is still read, but not parsed; a mapper that
+ * changed since the snapshot was written is parsed as usual.
+ *
+ * @since 3.5.7
+ */
+public class MapperDocumentSnapshot {
+
+  private static final int MAGIC = 0x4D425344;
+  private static final int VERSION = 2;
+
+  private static final byte ELEMENT = 1;
+  private static final byte TEXT = 2;
+  private static final byte CDATA = 3;
+
+  private static final Log log = LogFactory.getLog(MapperDocumentSnapshot.class);
+
+  private final Map<String, Entry> documents;
+
+  private MapperDocumentSnapshot(Map<String, Entry> documents) {
+    this.documents = documents;
+  }
+
+  /**
+   * Reads a snapshot. The documents are only decoded when they are requested.
+   *
+   * @param inputStream
+   *          the snapshot, as written by {@link #write(OutputStream, Map)}
+   * @return the snapshot
+   * @throws IOException
+   *           if the snapshot cannot be read or has an unknown format
+   */
+  public static MapperDocumentSnapshot read(InputStream inputStream) throws IOException {
+    final DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new IOException("Not a mapper document snapshot of version " + VERSION + ".");
+    }
+    final int count = in.readInt();
+    final Map<String, Entry> documents = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      final String location = readString(in);
+      final int length = in.readInt();
+      final long checksum = in.readLong();
+      final byte[] document = new byte[in.readInt()];
+      in.readFully(document);
+      documents.put(location, new Entry(length, checksum, document));
+    }
+    return new MapperDocumentSnapshot(documents);
+  }
+
+  /**
+   * Writes the snapshot of the given mapper files, which are parsed and validated.
+   *
+   * @param outputStream
+   *          the stream to write to
+   * @param mappers
+   *          the contents of the mapper files by the resource or url that names them in the configuration
+   * @throws IOException
+   *           if the snapshot cannot be written
+   */
+  public static void write(OutputStream outputStream, Map<String, byte[]> mappers) throws IOException {
+    final DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(mappers.size());
+    for (Map.Entry<String, byte[]> mapper : mappers.entrySet()) {
+      final byte[] contents = mapper.getValue();
+      final XPathParser parser = new XPathParser(new ByteArrayInputStream(contents), true, null,
+          new XMLMapperEntityResolver());
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      final DataOutputStream documentOut = new DataOutputStream(buffer);
+      writeNode(documentOut, parser.evalNode("/mapper").getNode(), new HashMap<>());
+      documentOut.flush();
+      writeString(out, mapper.getKey());
+      out.writeInt(contents.length);
+      out.writeLong(checksum(contents));
+      out.writeInt(buffer.size());
+      buffer.writeTo(out);
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes the snapshot of the mappers listed by resource or url in a configuration file. Mappers whose location
+   * contains a <code>${}</code> placeholder are left out, and are parsed when the configuration is built.
+   *
+   * @param args
+   *          the classpath resource of the configuration file and the snapshot file to write
+   * @throws IOException
+   *           if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: MapperDocumentSnapshot <configuration resource> <snapshot file>");
+    }
+    final Map<String, byte[]> mappers;
+    try (InputStream inputStream = Resources.getResourceAsStream(args[0])) {
+      mappers = readMappers(new XPathParser(inputStream, true, null, new XMLMapperEntityResolver()));
+    }
+    try (OutputStream outputStream = new FileOutputStream(args[1])) {
+      write(outputStream, mappers);
+    }
+  }
+
+  static Map<String, byte[]> readMappers(XPathParser configurationParser) throws IOException {
+    final Map<String, byte[]> mappers = new LinkedHashMap<>();
+    for (XNode mapper : configurationParser.evalNodes("/configuration/mappers/mapper")) {
+      final String resource = mapper.getStringAttribute("resource");
+      final String url = mapper.getStringAttribute("url");
+      final String location = resource != null ? resource : url;
+      if (location == null || (resource != null && url != null) || location.contains("${")) {
+        continue;
+      }
+      try (InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url)) {
+        mappers.put(location, readContents(inputStream));
+      }
+    }
+    return mappers;
+  }
+
+  static byte[] readContents(InputStream inputStream) throws IOException {
+    final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      contents.write(buffer, 0, read);
+    }
+    return contents.toByteArray();
+  }
+
+  /**
+   * Returns the locations of the documents in this snapshot.
+   *
+   * @return the resources and urls of the documents
+   */
+  public Set<String> getLocations() {
+    return Collections.unmodifiableSet(documents.keySet());
+  }
+
+  /**
+   * Builds a new DOM document from the snapshot, if the mapper file has not changed since the snapshot was written.
+   *
+   * @param location
+   *          the resource or url of the mapper
+   * @param contents
+   *          the current contents of the mapper file
+   * @return the document, or <code>null</code> when it is not in the snapshot or the mapper file has changed
+   */
+  public Document getDocument(String location, byte[] contents) {
+    final Entry entry = location == null ? null : documents.get(location);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.length != contents.length || entry.checksum != checksum(contents)) {
+      if (log.isDebugEnabled()) {
+        log.debug("Mapper '" + location + "' has changed since the snapshot was written, parsing it.");
+      }
+      return null;
+    }
+    try {
+      // documents are read from several threads, and JAXP factories are not thread-safe
+      final Document result = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+      final DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry.document));
+      result.appendChild(readNode(in, result, new ArrayList<>()));
+      if (log.isDebugEnabled()) {
+        log.debug("Read mapper '" + location + "' from the snapshot.");
+      }
+      return result;
+    } catch (IOException | ParserConfigurationException e) {
+      throw new BuilderException("Error reading the snapshot of mapper '" + location + "'.  Cause: " + e, e);
+    }
+  }
+
+  private static long checksum(byte[] contents) {
+    final CRC32 crc = new CRC32();
+    crc.update(contents, 0, contents.length);
+    return crc.getValue();
+  }
+
+  private static void writeNode(DataOutputStream out, Node node, Map<String, Integer> names) throws IOException {
+    final NamedNodeMap attributes = node.getAttributes();
+    out.writeByte(ELEMENT);
+    writeName(out, node.getNodeName(), names);
+    out.writeShort(attributes.getLength());
+    for (int i = 0; i < attributes.getLength(); i++) {
+      final Node attribute = attributes.item(i);
+      writeName(out, attribute.getNodeName(), names);
+      writeString(out, attribute.getNodeValue());
+    }
+    final List<Node> children = new ArrayList<>();
+    final NodeList childNodes = node.getChildNodes();
+    for (int i = 0; i < childNodes.getLength(); i++) {
+      final short type = childNodes.item(i).getNodeType();
+      if (type == Node.ELEMENT_NODE || type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE) {
+        children.add(childNodes.item(i));
+      }
+    }
+    out.writeInt(children.size());
+    for (Node child : children) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        writeNode(out, child, names);
+      } else {
+        out.writeByte(child.getNodeType() == Node.TEXT_NODE ? TEXT : CDATA);
+        writeString(out, child.getNodeValue());
+      }
+    }
+  }
+
+  private static Node readNode(DataInputStream in, Document document, List<String> names) throws IOException {
+    final byte type = in.readByte();
+    if (type == TEXT) {
+      return document.createTextNode(readString(in));
+    } else if (type == CDATA) {
+      return document.createCDATASection(readString(in));
+    } else if (type != ELEMENT) {
+      throw new IOException("Unknown node type " + type + ".");
+    }
+    final Element element = document.createElement(readName(in, names));
+    final int attributeCount = in.readShort();
+    for (int i = 0; i < attributeCount; i++) {
+      element.setAttribute(readName(in, names), readString(in));
+    }
+    final int childCount = in.readInt();
+    for (int i = 0; i < childCount; i++) {
+      element.appendChild(readNode(in, document, names));
+    }
+    return element;
+  }
+
+  private static void writeName(DataOutputStream out, String name, Map<String, Integer> names) throws IOException {
+    final Integer index = names.get(name);
+    if (index != null) {
+      out.writeShort(index);
+    } else {
+      out.writeShort(-1);
+      writeString(out, name);
+      names.put(name, names.size());
+    }
+  }
+
+  private static String readName(DataInputStream in, List<String> names) throws IOException {
+    final int index = in.readShort();
+    if (index >= 0) {
+      return names.get(index);
+    }
+    final String name = readString(in);
+    names.add(name);
+    return name;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Entry {
+
+    private final int length;
+    private final long checksum;
+    private final byte[] document;
+
+    Entry(int length, long checksum, byte[] document) {
+      this.length = length;
+      this.checksum = checksum;
+      this.document = document;
+    }
+  }
+
+}
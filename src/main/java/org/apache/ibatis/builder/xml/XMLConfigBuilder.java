@@ -15,17 +15,29 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
+import org.apache.ibatis.io.PackageScanIndex;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
@@ -46,6 +58,7 @@ import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
+import org.w3c.dom.Document;
 
 /**
  * @author Clinton Begin
@@ -53,6 +66,9 @@ import org.apache.ibatis.type.JdbcType;
  */
 public class XMLConfigBuilder extends BaseBuilder {
 
+  // settings that only apply while this builder parses the configuration, with no property in Configuration
+  private static final Set<String> PARSING_SETTINGS = Collections.singleton("usePackageScanIndex");
+
   private boolean parsed;
   private final XPathParser parser;
   private String environment;
@@ -105,11 +121,13 @@ public class XMLConfigBuilder extends BaseBuilder {
    * @param root
    */
   private void parseConfiguration(XNode root) {
+    PackageScanIndex packageScanIndex = null;
     try {
       // issue #117 read properties first
       propertiesElement(root.evalNode("properties"));
       Properties settings = settingsAsProperties(root.evalNode("settings"));
       loadCustomVfs(settings);
+      packageScanIndex = PackageScanIndex.open(booleanValueOf(settings.getProperty("usePackageScanIndex"), false));
       loadCustomLogImpl(settings);
       typeAliasesElement(root.evalNode("typeAliases"));
       pluginElement(root.evalNode("plugins"));
@@ -125,6 +143,10 @@ public class XMLConfigBuilder extends BaseBuilder {
       mapperElement(root.evalNode("mappers"));
     } catch (Exception e) {
       throw new BuilderException("Error parsing SQL Mapper Configuration. Cause: " + e, e);
+    } finally {
+      if (packageScanIndex != null) {
+        packageScanIndex.close();
+      }
     }
   }
 
@@ -136,7 +158,7 @@ public class XMLConfigBuilder extends BaseBuilder {
     // Check that all settings are known to the configuration class
     MetaClass metaConfig = MetaClass.forClass(Configuration.class, localReflectorFactory);
     for (Object key : props.keySet()) {
-      if (!metaConfig.hasSetter(String.valueOf(key))) {
+      if (!metaConfig.hasSetter(String.valueOf(key)) && !PARSING_SETTINGS.contains(key)) {
         throw new BuilderException("The setting " + key + " is not known.  Make sure you spelled it correctly (case sensitive).");
       }
     }
@@ -274,7 +296,17 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setLogPrefix(props.getProperty("logPrefix"));
     configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
     configuration.setShrinkWhitespacesInSql(booleanValueOf(props.getProperty("shrinkWhitespacesInSql"), false));
+    configuration.setCompileDynamicSql(booleanValueOf(props.getProperty("compileDynamicSql"), false));
+    configuration.setBoundSqlCacheSize(integerValueOf(props.getProperty("boundSqlCacheSize"), 0));
+    configuration.setCompileExpressions(booleanValueOf(props.getProperty("compileExpressions"), false));
+    configuration.setGenerateAccessors(booleanValueOf(props.getProperty("generateAccessors"), false));
+    configuration.setResultMappingPlanCacheSize(integerValueOf(props.getProperty("resultMappingPlanCacheSize"), 0));
+    configuration.setResultSetMetadataCacheSize(integerValueOf(props.getProperty("resultSetMetadataCacheSize"), 0));
+    configuration.setParallelMapperParsing(booleanValueOf(props.getProperty("parallelMapperParsing"), false));
+    configuration.setMapperDocumentSnapshot(props.getProperty("mapperDocumentSnapshot"));
+    configuration.setLazyStatementBuilding(booleanValueOf(props.getProperty("lazyStatementBuilding"), false));
     configuration.setDefaultSqlProviderType(resolveClass(props.getProperty("defaultSqlProviderType")));
+    configuration.setCacheSerializer((CacheSerializer) createInstance(props.getProperty("cacheSerializer")));
   }
 
   private void environmentsElement(XNode context) throws Exception {
@@ -379,34 +411,160 @@ public class XMLConfigBuilder extends BaseBuilder {
 
   private void mapperElement(XNode parent) throws Exception {
     if (parent != null) {
-      for (XNode child : parent.getChildren()) {
-        if ("package".equals(child.getName())) {
-          String mapperPackage = child.getStringAttribute("name");
-          configuration.addMappers(mapperPackage);
-        } else {
-          String resource = child.getStringAttribute("resource");
-          String url = child.getStringAttribute("url");
-          String mapperClass = child.getStringAttribute("class");
-          if (resource != null && url == null && mapperClass == null) {
-            ErrorContext.instance().resource(resource);
-            try(InputStream inputStream = Resources.getResourceAsStream(resource)) {
-              XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
-              mapperParser.parse();
-            }
-          } else if (resource == null && url != null && mapperClass == null) {
-            ErrorContext.instance().resource(url);
-            try(InputStream inputStream = Resources.getUrlAsStream(url)){
-              XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
+      final List<XNode> children = parent.getChildren();
+      final MapperDocumentSnapshot snapshot = loadMapperDocumentSnapshot();
+      final List<CompletableFuture<XPathParser>> documents = configuration.isParallelMapperParsing()
+          ? readMapperDocuments(children, snapshot) : null;
+      try {
+        for (int i = 0; i < children.size(); i++) {
+          final XNode child = children.get(i);
+          final CompletableFuture<XPathParser> document = documents == null ? null : documents.get(i);
+          if ("package".equals(child.getName())) {
+            String mapperPackage = child.getStringAttribute("name");
+            configuration.addMappers(mapperPackage);
+          } else {
+            String resource = child.getStringAttribute("resource");
+            String url = child.getStringAttribute("url");
+            String mapperClass = child.getStringAttribute("class");
+            String location = getMapperLocation(resource, url, mapperClass);
+            if (document != null || isInSnapshot(snapshot, location)) {
+              ErrorContext.instance().resource(location);
+              XPathParser parser = document != null ? joinMapperDocument(document) : readMapperDocument(resource, url, snapshot);
+              if (document != null) {
+                // do not keep the documents of the mappers already parsed reachable until the last one is
+                documents.set(i, null);
+              }
+              XMLMapperBuilder mapperParser = new XMLMapperBuilder(parser, configuration, location, configuration.getSqlFragments());
               mapperParser.parse();
+            } else if (resource != null && url == null && mapperClass == null) {
+              ErrorContext.instance().resource(resource);
+              try(InputStream inputStream = Resources.getResourceAsStream(resource)) {
+                XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
+                mapperParser.parse();
+              }
+            } else if (resource == null && url != null && mapperClass == null) {
+              ErrorContext.instance().resource(url);
+              try(InputStream inputStream = Resources.getUrlAsStream(url)){
+                XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
+                mapperParser.parse();
+              }
+            } else if (resource == null && url == null && mapperClass != null) {
+              Class<?> mapperInterface = Resources.classForName(mapperClass);
+              configuration.addMapper(mapperInterface);
+            } else {
+              throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
             }
-          } else if (resource == null && url == null && mapperClass != null) {
-            Class<?> mapperInterface = Resources.classForName(mapperClass);
-            configuration.addMapper(mapperInterface);
-          } else {
-            throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
           }
         }
+      } finally {
+        if (documents != null) {
+          // only pending when a mapper failed, do not keep reading the remaining documents on the common pool
+          cancelMapperDocuments(documents);
+        }
+      }
+    }
+  }
+
+  private MapperDocumentSnapshot loadMapperDocumentSnapshot() throws IOException {
+    final String snapshot = configuration.getMapperDocumentSnapshot();
+    if (snapshot == null) {
+      return null;
+    }
+    try (InputStream inputStream = Resources.getResourceAsStream(snapshot)) {
+      return MapperDocumentSnapshot.read(inputStream);
+    }
+  }
+
+  /**
+   * Returns the resource or url of a mapper element that specifies one of them only, null otherwise.
+   */
+  private String getMapperLocation(String resource, String url, String mapperClass) {
+    if (mapperClass != null || (resource == null) == (url == null)) {
+      return null;
+    }
+    return resource != null ? resource : url;
+  }
+
+  private boolean isInSnapshot(MapperDocumentSnapshot snapshot, String location) {
+    return snapshot != null && location != null && snapshot.getLocations().contains(location);
+  }
+
+  /**
+   * Starts reading the documents of the mappers given by resource or url on the common fork-join pool. The returned
+   * list has an entry per mapper element, null for the other ones.
+   */
+  private List<CompletableFuture<XPathParser>> readMapperDocuments(List<XNode> children, MapperDocumentSnapshot snapshot) {
+    final List<CompletableFuture<XPathParser>> documents = new ArrayList<>(children.size());
+    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    for (XNode child : children) {
+      final String resource = child.getStringAttribute("resource");
+      final String url = child.getStringAttribute("url");
+      final String location = getMapperLocation(resource, url, child.getStringAttribute("class"));
+      if ("package".equals(child.getName()) || location == null) {
+        documents.add(null);
+      } else {
+        documents.add(CompletableFuture.supplyAsync(() -> readMapperDocument(resource, url, snapshot, contextClassLoader),
+            ForkJoinPool.commonPool()));
+      }
+    }
+    return documents;
+  }
+
+  private void cancelMapperDocuments(List<CompletableFuture<XPathParser>> documents) {
+    for (CompletableFuture<XPathParser> document : documents) {
+      if (document != null) {
+        // does nothing to the completed ones, and keeps the pending ones from starting
+        document.cancel(false);
+      }
+    }
+  }
+
+  private XPathParser readMapperDocument(String resource, String url, MapperDocumentSnapshot snapshot,
+      ClassLoader contextClassLoader) {
+    final Thread thread = Thread.currentThread();
+    final ClassLoader previousClassLoader = thread.getContextClassLoader();
+    thread.setContextClassLoader(contextClassLoader);
+    try {
+      return readMapperDocument(resource, url, snapshot);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      thread.setContextClassLoader(previousClassLoader);
+    }
+  }
+
+  /**
+   * Reads the document of a mapper given by resource or url, from the snapshot when it has the current version of the
+   * mapper file.
+   */
+  private XPathParser readMapperDocument(String resource, String url, MapperDocumentSnapshot snapshot) throws IOException {
+    final String location = resource != null ? resource : url;
+    try (InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url)) {
+      if (!isInSnapshot(snapshot, location)) {
+        return new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver());
+      }
+      final byte[] contents = MapperDocumentSnapshot.readContents(inputStream);
+      final Document document = snapshot.getDocument(location, contents);
+      return document != null
+          ? new XPathParser(document, true, configuration.getVariables(), new XMLMapperEntityResolver())
+          : new XPathParser(new ByteArrayInputStream(contents), true, configuration.getVariables(), new XMLMapperEntityResolver());
+    }
+  }
+
+  private XPathParser joinMapperDocument(CompletableFuture<XPathParser> document) throws IOException {
+    try {
+      return document.join();
+    } catch (CompletionException e) {
+      // report what reading the mapper in this thread would have thrown
+      final Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
       }
+      throw e;
     }
   }
 
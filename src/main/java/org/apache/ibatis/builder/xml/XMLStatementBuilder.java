@@ -61,6 +61,18 @@ public class XMLStatementBuilder extends BaseBuilder {
       return;
     }
 
+    if (configuration.isLazyStatementBuilding()) {
+      configuration.addLazyStatement(new LazyStatement(builderAssistant.applyCurrentNamespace(id, false), databaseId,
+          configuration, builderAssistant, context.getNode(), requiredDatabaseId));
+      return;
+    }
+    buildStatementNode();
+  }
+
+  void buildStatementNode() {
+    String id = context.getStringAttribute("id");
+    String databaseId = context.getStringAttribute("databaseId");
+
     String nodeName = context.getNode().getNodeName();
     SqlCommandType sqlCommandType = SqlCommandType.valueOf(nodeName.toUpperCase(Locale.ENGLISH));
     boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
@@ -186,6 +198,10 @@ public class XMLStatementBuilder extends BaseBuilder {
       return true;
     }
     // skip this statement if there is a previous one with a not null databaseId
+    LazyStatement lazyPrevious = this.configuration.getLazyStatement(id);
+    if (lazyPrevious != null) {
+      return lazyPrevious.getDatabaseId() == null;
+    }
     MappedStatement previous = this.configuration.getMappedStatement(id, false); // issue #2
     return previous.getDatabaseId() == null;
   }
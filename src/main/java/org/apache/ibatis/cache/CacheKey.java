@@ -16,18 +16,22 @@
 package org.apache.ibatis.cache;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 import org.apache.ibatis.reflection.ArrayUtil;
 
 /**
+ * Key of a cached query result, made of all the objects the result depends on.
+ * <p>
+ * The objects are kept in a flat array, presized when the number of updates is known. Each update is mixed into a
+ * 64-bit hash, so keys that are not equal almost never need their objects compared.
+ *
  * @author Clinton Begin
  */
 public class CacheKey implements Cloneable, Serializable {
 
-  private static final long serialVersionUID = 1146682552656046210L;
+  private static final long serialVersionUID = -4474412581436470342L;
 
   public static final CacheKey NULL_CACHE_KEY = new CacheKey() {
 
@@ -40,45 +44,62 @@ public class CacheKey implements Cloneable, Serializable {
     public void updateAll(Object[] objects) {
       throw new CacheException("Not allowed to update a null cache key instance.");
     }
+
+    @Override
+    public void reset() {
+      throw new CacheException("Not allowed to update a null cache key instance.");
+    }
   };
 
-  private static final int DEFAULT_MULTIPLIER = 37;
-  private static final int DEFAULT_HASHCODE = 17;
+  private static final int DEFAULT_CAPACITY = 8;
+  private static final long DEFAULT_CHECKSUM = 17;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+  private static final Object[] EMPTY_UPDATE_LIST = {};
 
-  private final int multiplier;
   private int hashcode;
   private long checksum;
   private int count;
   // 8/21/2017 - Sonarlint flags this as needing to be marked transient. While true if content is not serializable, this
   // is not always true and thus should not be marked transient.
-  private List<Object> updateList;
+  private Object[] updateList;
 
   public CacheKey() {
-    this.hashcode = DEFAULT_HASHCODE;
-    this.multiplier = DEFAULT_MULTIPLIER;
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an empty key with room for the given number of updates.
+   *
+   * @param expectedUpdateCount
+   *          the number of times {@link #update(Object)} is expected to be called
+   * @since 3.5.7
+   */
+  public CacheKey(int expectedUpdateCount) {
+    this.checksum = DEFAULT_CHECKSUM;
+    this.hashcode = foldHash(DEFAULT_CHECKSUM);
     this.count = 0;
-    this.updateList = new ArrayList<>();
+    this.updateList = expectedUpdateCount > 0 ? new Object[expectedUpdateCount] : EMPTY_UPDATE_LIST;
   }
 
   public CacheKey(Object[] objects) {
-    this();
+    this(objects.length);
     updateAll(objects);
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   public void update(Object object) {
     int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
 
-    count++;
-    checksum += baseHashCode;
-    baseHashCode *= count;
-
-    hashcode = multiplier * hashcode + baseHashCode;
+    if (count == updateList.length) {
+      updateList = Arrays.copyOf(updateList, Math.max(DEFAULT_CAPACITY, count * 2));
+    }
+    updateList[count++] = object;
 
-    updateList.add(object);
+    checksum = mix((checksum ^ baseHashCode) * GOLDEN_RATIO + count);
+    hashcode = foldHash(checksum);
   }
 
   public void updateAll(Object[] objects) {
@@ -87,6 +108,18 @@ public class CacheKey implements Cloneable, Serializable {
     }
   }
 
+  /**
+   * Removes all the updates, so that the key can be filled again without allocating a new one.
+   *
+   * @since 3.5.7
+   */
+  public void reset() {
+    Arrays.fill(updateList, 0, count, null);
+    checksum = DEFAULT_CHECKSUM;
+    hashcode = foldHash(DEFAULT_CHECKSUM);
+    count = 0;
+  }
+
   @Override
   public boolean equals(Object object) {
     if (this == object) {
@@ -98,9 +131,6 @@ public class CacheKey implements Cloneable, Serializable {
 
     final CacheKey cacheKey = (CacheKey) object;
 
-    if (hashcode != cacheKey.hashcode) {
-      return false;
-    }
     if (checksum != cacheKey.checksum) {
       return false;
     }
@@ -108,10 +138,8 @@ public class CacheKey implements Cloneable, Serializable {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
-      if (!ArrayUtil.equals(thisObject, thatObject)) {
+    for (int i = 0; i < count; i++) {
+      if (!ArrayUtil.equals(updateList[i], cacheKey.updateList[i])) {
         return false;
       }
     }
@@ -128,15 +156,34 @@ public class CacheKey implements Cloneable, Serializable {
     StringJoiner returnValue = new StringJoiner(":");
     returnValue.add(String.valueOf(hashcode));
     returnValue.add(String.valueOf(checksum));
-    updateList.stream().map(ArrayUtil::toString).forEach(returnValue::add);
+    for (int i = 0; i < count; i++) {
+      returnValue.add(ArrayUtil.toString(updateList[i]));
+    }
     return returnValue.toString();
   }
 
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<>(updateList);
+    // room for the update that usually follows a clone
+    clonedCacheKey.updateList = Arrays.copyOf(updateList, count + 1);
     return clonedCacheKey;
   }
 
+  private static int foldHash(long hash) {
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  /**
+   * The finalization mix of MurmurHash3, so that every bit of an update affects every bit of the hash.
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
 }
@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+
+/**
+ * Turns cached values into bytes and back, used by {@link org.apache.ibatis.cache.decorators.SerializedCache} to store
+ * copies of the values.
+ * <p>
+ * The serializer of a cache is set with the {@code serializer} property of its {@code <cache>} element, otherwise
+ * the {@code cacheSerializer} setting of the configuration is used. Implementations must be thread-safe and have a
+ * public no-argument constructor.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.cache.serializer.JavaCacheSerializer
+ * @see org.apache.ibatis.cache.serializer.ReflectorCacheSerializer
+ */
+public interface CacheSerializer {
+
+  /**
+   * Serializes a value.
+   *
+   * @param value
+   *          the value to serialize, may be null
+   * @return the bytes of the value
+   * @throws CacheException
+   *           if the value cannot be serialized
+   */
+  byte[] serialize(Serializable value);
+
+  /**
+   * Deserializes a value, returning a new copy on every call.
+   *
+   * @param bytes
+   *          bytes returned by {@link #serialize(Serializable)}
+   * @return the value, may be null
+   * @throws CacheException
+   *           if the value cannot be deserialized
+   */
+  Serializable deserialize(byte[] bytes);
+
+}
@@ -15,9 +15,11 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
@@ -25,9 +27,16 @@ import org.apache.ibatis.cache.CacheException;
 /**
  * <p>Simple blocking decorator
  *
- * <p>Simple and inefficient version of EhCache's BlockingCache decorator.
- * It sets a lock over a cache key when the element is not found in cache.
- * This way, other threads will wait until this element is filled instead of hitting the database.
+ * <p>Single-flight version of EhCache's BlockingCache decorator.
+ * When an element is not found in cache, the first thread asking for it gets a miss and is expected to load it,
+ * other threads asking for the same key wait for the outcome instead of hitting the database.
+ * They are woken up as soon as the value is put and, if the cache is read-only, get that value without another
+ * lookup.
+ * If the loading thread releases the key without a value, by calling {@link #removeObject(Object)} or by putting
+ * null, one of the waiting threads gets a miss and loads the element in turn.
+ *
+ * <p>Hits never block. The timeout, if set, bounds the time a thread waits for a key, whatever the number of
+ * loading attempts by other threads.
  *
  * <p>By its nature, this implementation can cause deadlock when used incorrecly.
  *
@@ -36,13 +45,17 @@ import org.apache.ibatis.cache.CacheException;
  */
 public class BlockingCache implements Cache {
 
+  /** Outcome of a load that ended without a value. */
+  private static final Object RETRY = new Object();
+
   private long timeout;
+  private boolean handOff;
   private final Cache delegate;
-  private final ConcurrentHashMap<Object, CountDownLatch> locks;
+  private final ConcurrentHashMap<Object, CompletableFuture<Object>> loads;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
-    this.locks = new ConcurrentHashMap<>();
+    this.loads = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -60,24 +73,49 @@ public class BlockingCache implements Cache {
     try {
       delegate.putObject(key, value);
     } finally {
-      releaseLock(key);
+      releaseLock(key, value == null ? RETRY : value);
     }
   }
 
   @Override
   public Object getObject(Object key) {
-    acquireLock(key);
-    Object value = delegate.getObject(key);
-    if (value != null) {
-      releaseLock(key);
+    long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+    while (true) {
+      CompletableFuture<Object> load = loads.get(key);
+      if (load == null) {
+        Object value = delegate.getObject(key);
+        if (value != null) {
+          return value;
+        }
+        CompletableFuture<Object> newLoad = new CompletableFuture<>();
+        load = loads.putIfAbsent(key, newLoad);
+        if (load == null) {
+          // the value may have been put between the lookup and the registration of the load
+          value = delegate.getObject(key);
+          if (value != null) {
+            releaseLock(key, value);
+          }
+          return value;
+        }
+      }
+      Object value = await(key, load, deadline);
+      if (value != RETRY) {
+        if (handOff) {
+          return value;
+        }
+        // read a copy, unless it was evicted in the meantime
+        value = delegate.getObject(key);
+        if (value != null) {
+          return value;
+        }
+      }
     }
-    return value;
   }
 
   @Override
   public Object removeObject(Object key) {
     // despite of its name, this method is called only to release locks
-    releaseLock(key);
+    releaseLock(key, RETRY);
     return null;
   }
 
@@ -86,35 +124,30 @@ public class BlockingCache implements Cache {
     delegate.clear();
   }
 
-  private void acquireLock(Object key) {
-    CountDownLatch newLatch = new CountDownLatch(1);
-    while (true) {
-      CountDownLatch latch = locks.putIfAbsent(key, newLatch);
-      if (latch == null) {
-        break;
-      }
-      try {
-        if (timeout > 0) {
-          boolean acquired = latch.await(timeout, TimeUnit.MILLISECONDS);
-          if (!acquired) {
-            throw new CacheException(
-                "Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
-          }
-        } else {
-          latch.await();
-        }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+  private Object await(Object key, CompletableFuture<Object> load, long deadline) {
+    try {
+      if (deadline == 0) {
+        return load.get();
       }
+      return load.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      throw new CacheException(
+          "Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+    } catch (ExecutionException e) {
+      // never completed exceptionally
+      throw new CacheException("Error while waiting for key " + key + ". Cause: " + e.getCause(), e.getCause());
     }
   }
 
-  private void releaseLock(Object key) {
-    CountDownLatch latch = locks.remove(key);
-    if (latch == null) {
+  private void releaseLock(Object key, Object outcome) {
+    CompletableFuture<Object> load = loads.remove(key);
+    if (load == null) {
       throw new IllegalStateException("Detected an attempt at releasing unacquired lock. This should never happen.");
     }
-    latch.countDown();
+    load.complete(outcome);
   }
 
   public long getTimeout() {
@@ -124,4 +157,21 @@ public class BlockingCache implements Cache {
   public void setTimeout(long timeout) {
     this.timeout = timeout;
   }
+
+  public boolean isHandOff() {
+    return handOff;
+  }
+
+  /**
+   * Sets whether the value put by the loading thread is returned as is to the waiting threads. This is only correct
+   * when the decorated cache returns shared instances, that is when the cache is read-only. The cache builder sets it
+   * from the <code>readOnly</code> attribute of the cache, over any <code>handOff</code> property.
+   *
+   * @param handOff
+   *          true to hand the loaded value over to the waiting threads
+   * @since 3.5.7
+   */
+  public void setHandOff(boolean handOff) {
+    this.handOff = handOff;
+  }
 }
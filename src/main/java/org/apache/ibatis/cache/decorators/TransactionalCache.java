@@ -138,19 +138,24 @@ public class TransactionalCache implements Cache {
     }
     for (Object entry : entriesMissedInCache) {
       if (!entriesToAddOnCommit.containsKey(entry)) {
-        delegate.putObject(entry, null);
+        unlockMissedEntry(entry);
       }
     }
   }
 
   private void unlockMissedEntries() {
     for (Object entry : entriesMissedInCache) {
-      try {
-        delegate.removeObject(entry);
-      } catch (Exception e) {
-        log.warn("Unexpected exception while notifying a rollback to the cache adapter. "
-            + "Consider upgrading your cache adapter to the latest version. Cause: " + e);
-      }
+      unlockMissedEntry(entry);
+    }
+  }
+
+  private void unlockMissedEntry(Object entry) {
+    // releases the lock a blocking cache holds on the entry, without storing a null value
+    try {
+      delegate.removeObject(entry);
+    } catch (Exception e) {
+      log.warn("Unexpected exception while releasing an entry missed in the cache adapter. "
+          + "Consider upgrading your cache adapter to the latest version. Cause: " + e);
     }
   }
 
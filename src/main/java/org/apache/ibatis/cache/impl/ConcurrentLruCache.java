@@ -0,0 +1,166 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * Bounded, thread-safe cache with a built-in approximate LRU (CLOCK) eviction policy.
+ * <p>
+ * Reads never block: a hit only sets the referenced bit of the entry. When a put makes the cache grow beyond its
+ * size, the putting thread sweeps the entries giving referenced ones a second chance and removing the others. Only one
+ * thread sweeps at a time, other writers do not wait for it.
+ * <p>
+ * As this cache is safe for concurrent use on its own, {@link org.apache.ibatis.mapping.CacheBuilder} neither wraps it
+ * with an eviction decorator nor with a {@link org.apache.ibatis.cache.decorators.SynchronizedCache}.
+ *
+ * @since 3.5.7
+ */
+public class ConcurrentLruCache implements Cache {
+
+  private final String id;
+
+  private final ConcurrentHashMap<Object, Entry> cache = new ConcurrentHashMap<>();
+
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  /** Guarded by evictionLock. */
+  private Iterator<Entry> clockHand;
+
+  private volatile int size = 1024;
+
+  public ConcurrentLruCache(String id) {
+    this.id = id;
+  }
+
+  public void setSize(int size) {
+    if (size <= 0) {
+      throw new CacheException("Cache size must be a positive number but was " + size);
+    }
+    this.size = size;
+    evictIfNecessary();
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    cache.put(key, new Entry(key, value));
+    evictIfNecessary();
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Entry entry = cache.get(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.touch();
+    return entry.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Entry entry = cache.remove(key);
+    return entry == null ? null : entry.value;
+  }
+
+  @Override
+  public void clear() {
+    cache.clear();
+  }
+
+  private void evictIfNecessary() {
+    if (cache.size() <= size || !evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      while (cache.size() > size) {
+        if (clockHand == null || !clockHand.hasNext()) {
+          clockHand = cache.values().iterator();
+          if (!clockHand.hasNext()) {
+            break;
+          }
+        }
+        Entry entry = clockHand.next();
+        if (entry.referenced) {
+          entry.referenced = false;
+        } else {
+          cache.remove(entry.key, entry);
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Entry {
+
+    private final Object key;
+    private final Object value;
+    private volatile boolean referenced;
+
+    private Entry(Object key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    private void touch() {
+      // avoid writing the shared cache line on every hit
+      if (!referenced) {
+        referenced = true;
+      }
+    }
+  }
+
+}
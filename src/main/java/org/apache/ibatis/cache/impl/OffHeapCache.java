@@ -0,0 +1,329 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * Bounded, thread-safe cache that keeps its values outside of the Java heap, in direct {@link ByteBuffer} slabs.
+ * <p>
+ * Only serialized values ({@code byte[]}) are accepted; {@link org.apache.ibatis.mapping.CacheBuilder} always wraps
+ * this cache with a {@link org.apache.ibatis.cache.decorators.SerializedCache}, so every read returns a fresh copy.
+ * Keys stay on the heap.
+ * <p>
+ * Values are appended to the current slab. When it is full, the next slab of the ring is reused and all the entries
+ * it held are evicted, so the memory used never exceeds {@code capacity} and the oldest entries go first. The number
+ * of entries can additionally be bounded with {@code size}.
+ *
+ * @since 3.5.7
+ */
+public class OffHeapCache implements Cache {
+
+  private final String id;
+
+  private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+  /** Guarded by readWriteLock. */
+  private final Map<Object, Location> index = new LinkedHashMap<Object, Location>() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Object, Location> eldest) {
+      return size() > size;
+    }
+  };
+
+  /** Guarded by readWriteLock. */
+  private Slab[] slabs;
+  /** Guarded by readWriteLock. */
+  private int currentSlab;
+
+  private long capacity = 64L * 1024 * 1024;
+  private int slabSize = 4 * 1024 * 1024;
+  private int size = Integer.MAX_VALUE;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Sets the maximum number of bytes of off-heap memory, rounded up to a whole number of slabs.
+   *
+   * @param capacity
+   *          the capacity in bytes
+   */
+  public void setCapacity(long capacity) {
+    if (capacity <= 0) {
+      throw new CacheException("Cache capacity must be a positive number but was " + capacity);
+    }
+    Lock lock = readWriteLock.writeLock();
+    lock.lock();
+    try {
+      this.capacity = capacity;
+      reset();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Sets the size in bytes of each slab, values larger than a slab are not cached.
+   *
+   * @param slabSize
+   *          the slab size in bytes
+   */
+  public void setSlabSize(int slabSize) {
+    if (slabSize <= 0) {
+      throw new CacheException("Cache slab size must be a positive number but was " + slabSize);
+    }
+    Lock lock = readWriteLock.writeLock();
+    lock.lock();
+    try {
+      this.slabSize = slabSize;
+      reset();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  /**
+   * Sets the maximum number of entries, the memory used is bounded by {@link #setCapacity(long)} in any case.
+   *
+   * @param size
+   *          the maximum number of entries
+   */
+  public void setSize(int size) {
+    if (size <= 0) {
+      throw new CacheException("Cache size must be a positive number but was " + size);
+    }
+    Lock lock = readWriteLock.writeLock();
+    lock.lock();
+    try {
+      this.size = size;
+      Iterator<Location> iterator = index.values().iterator();
+      while (index.size() > size) {
+        iterator.next();
+        iterator.remove();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    Lock lock = readWriteLock.readLock();
+    lock.lock();
+    try {
+      return index.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (!(value instanceof byte[])) {
+      throw new CacheException("OffHeapCache only stores serialized values, wrap it with a SerializedCache.");
+    }
+    byte[] bytes = (byte[]) value;
+    Lock lock = readWriteLock.writeLock();
+    lock.lock();
+    try {
+      // the space of a replaced value is reclaimed when its slab is reused
+      index.remove(key);
+      if (bytes.length > slabSize) {
+        return;
+      }
+      Slab slab = slabFor(bytes.length);
+      Location location = new Location(key, slab, slab.position, bytes.length);
+      // through Buffer, as ByteBuffer.position(int) only exists since Java 9
+      ((Buffer) slab.buffer).position(slab.position);
+      slab.buffer.put(bytes);
+      slab.position += bytes.length;
+      slab.locations.add(location);
+      index.put(key, location);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Lock lock = readWriteLock.readLock();
+    lock.lock();
+    try {
+      return read(index.get(key));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Lock lock = readWriteLock.writeLock();
+    lock.lock();
+    try {
+      return read(index.remove(key));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    Lock lock = readWriteLock.writeLock();
+    lock.lock();
+    try {
+      index.clear();
+      if (slabs != null) {
+        for (Slab slab : slabs) {
+          if (slab != null) {
+            slab.recycle();
+          }
+        }
+      }
+      currentSlab = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static byte[] read(Location location) {
+    if (location == null) {
+      return null;
+    }
+    byte[] bytes = new byte[location.length];
+    // a duplicate has its own position, so concurrent readers do not interfere
+    ByteBuffer buffer = location.slab.buffer.duplicate();
+    ((Buffer) buffer).position(location.offset);
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private void reset() {
+    index.clear();
+    // the direct buffers are released when they are garbage collected
+    slabs = null;
+    currentSlab = 0;
+  }
+
+  private Slab slabFor(int length) {
+    if (slabs == null) {
+      slabs = new Slab[(int) Math.max(1, (capacity + slabSize - 1) / slabSize)];
+    }
+    Slab slab = slabs[currentSlab];
+    if (slab != null && slab.buffer.capacity() - slab.position >= length) {
+      return slab;
+    }
+    if (slab != null) {
+      currentSlab = (currentSlab + 1) % slabs.length;
+      slab = slabs[currentSlab];
+    }
+    if (slab == null) {
+      slab = new Slab(ByteBuffer.allocateDirect(slabSize));
+      slabs[currentSlab] = slab;
+    } else {
+      // the oldest slab of the ring, evict whatever it still holds
+      for (Location location : slab.locations) {
+        index.remove(location.key, location);
+      }
+      slab.recycle();
+    }
+    return slab;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Slab {
+
+    private final ByteBuffer buffer;
+    private final List<Location> locations = new ArrayList<>();
+    private int position;
+
+    private Slab(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    private void recycle() {
+      locations.clear();
+      position = 0;
+    }
+  }
+
+  private static final class Location {
+
+    private final Object key;
+    private final Slab slab;
+    private final int offset;
+    private final int length;
+
+    private Location(Object key, Slab slab, int offset, int length) {
+      this.key = key;
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+}
@@ -0,0 +1,509 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * A compact binary serializer driven by the {@link Reflector} metadata of the result types.
+ * <p>
+ * Plain beans are written as the values of their fields, read and written through the invokers of their
+ * {@link Reflector}, instead of as Java serialization class descriptors. Strings, numbers, dates, enums and the
+ * common {@link List}, {@link Set} and {@link Map} implementations are written natively as well. Shared and circular
+ * references are preserved.
+ * <p>
+ * A bean is handled natively when it is {@link Serializable}, has a default constructor, no final, transient or
+ * shadowed fields and no custom serialization methods. Any other value, a lazy loading proxy for instance, is
+ * written with Java serialization, so that values which cannot be serialized fail just like with
+ * {@link JavaCacheSerializer}.
+ *
+ * @since 3.5.7
+ */
+public class ReflectorCacheSerializer implements CacheSerializer {
+
+  private static final byte NULL = 0;
+  private static final byte REFERENCE = 1;
+  private static final byte STRING = 2;
+  private static final byte INTEGER = 3;
+  private static final byte LONG = 4;
+  private static final byte SHORT = 5;
+  private static final byte BYTE = 6;
+  private static final byte BOOLEAN = 7;
+  private static final byte CHARACTER = 8;
+  private static final byte FLOAT = 9;
+  private static final byte DOUBLE = 10;
+  private static final byte BIG_DECIMAL = 11;
+  private static final byte BIG_INTEGER = 12;
+  private static final byte DATE = 13;
+  private static final byte TIMESTAMP = 14;
+  private static final byte SQL_DATE = 15;
+  private static final byte TIME = 16;
+  private static final byte ENUM = 17;
+  private static final byte BYTE_ARRAY = 18;
+  private static final byte ARRAY_LIST = 19;
+  private static final byte LINKED_LIST = 20;
+  private static final byte HASH_SET = 21;
+  private static final byte LINKED_HASH_SET = 22;
+  private static final byte HASH_MAP = 23;
+  private static final byte LINKED_HASH_MAP = 24;
+  private static final byte BEAN = 25;
+  private static final byte SERIALIZED = 26;
+
+  private static final BeanPlan UNSUPPORTED = new BeanPlan(null, null);
+
+  private final ReflectorFactory reflectorFactory;
+  private final ObjectFactory objectFactory = new DefaultObjectFactory();
+  private final JavaCacheSerializer fallback = new JavaCacheSerializer();
+  private final ConcurrentMap<Class<?>, BeanPlan> plans = new ConcurrentHashMap<>();
+
+  public ReflectorCacheSerializer() {
+    this(new DefaultReflectorFactory());
+  }
+
+  public ReflectorCacheSerializer(ReflectorFactory reflectorFactory) {
+    this.reflectorFactory = reflectorFactory;
+  }
+
+  @Override
+  public byte[] serialize(Serializable value) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bos)) {
+      new Writer(out).write(value);
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    }
+    return bos.toByteArray();
+  }
+
+  @Override
+  public Serializable deserialize(byte[] bytes) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      return (Serializable) new Reader(in).read();
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private BeanPlan planFor(Class<?> type) {
+    BeanPlan plan = plans.get(type);
+    if (plan == null) {
+      plan = plans.computeIfAbsent(type, this::createPlan);
+    }
+    return plan;
+  }
+
+  private BeanPlan createPlan(Class<?> type) {
+    if (!Serializable.class.isAssignableFrom(type) || Externalizable.class.isAssignableFrom(type)
+        || WriteReplaceInterface.class.isAssignableFrom(type) || type.isArray() || type.isInterface()
+        || Modifier.isAbstract(type.getModifiers()) || type.getName().startsWith("java.")) {
+      return UNSUPPORTED;
+    }
+    Reflector reflector = reflectorFactory.findForClass(type);
+    if (!reflector.hasDefaultConstructor()) {
+      return UNSUPPORTED;
+    }
+    Set<String> getable = new HashSet<>();
+    Set<String> setable = new HashSet<>();
+    for (String name : reflector.getGetablePropertyNames()) {
+      getable.add(name);
+    }
+    for (String name : reflector.getSetablePropertyNames()) {
+      setable.add(name);
+    }
+    // the state of the bean is the state Java serialization would write: its fields
+    Set<String> fieldNames = new TreeSet<>();
+    for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+      if (hasSerializationMethods(current)) {
+        return UNSUPPORTED;
+      }
+      for (Field field : current.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers)) {
+          continue;
+        }
+        if (Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers) || !fieldNames.add(field.getName())
+            || !getable.contains(field.getName()) || !setable.contains(field.getName())) {
+          return UNSUPPORTED;
+        }
+      }
+    }
+    Invoker[] getters = new Invoker[fieldNames.size()];
+    Invoker[] setters = new Invoker[fieldNames.size()];
+    int i = 0;
+    for (String name : fieldNames) {
+      getters[i] = reflector.getGetInvoker(name);
+      setters[i] = reflector.getSetInvoker(name);
+      i++;
+    }
+    return new BeanPlan(getters, setters);
+  }
+
+  private static boolean hasSerializationMethods(Class<?> type) {
+    for (Method method : type.getDeclaredMethods()) {
+      switch (method.getName()) {
+        case "writeObject":
+        case "readObject":
+        case "readObjectNoData":
+        case "writeReplace":
+        case "readResolve":
+          return true;
+        default:
+          break;
+      }
+    }
+    return false;
+  }
+
+  private static final class BeanPlan {
+
+    private final Invoker[] getters;
+    private final Invoker[] setters;
+
+    private BeanPlan(Invoker[] getters, Invoker[] setters) {
+      this.getters = getters;
+      this.setters = setters;
+    }
+  }
+
+  private final class Writer {
+
+    private final DataOutputStream out;
+    private final Map<Object, Integer> handles = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+    private Writer(DataOutputStream out) {
+      this.out = out;
+    }
+
+    private void write(Object value) throws Exception {
+      if (value == null) {
+        out.writeByte(NULL);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == String.class) {
+        out.writeByte(STRING);
+        writeString((String) value);
+      } else if (type == Integer.class) {
+        out.writeByte(INTEGER);
+        out.writeInt((Integer) value);
+      } else if (type == Long.class) {
+        out.writeByte(LONG);
+        out.writeLong((Long) value);
+      } else if (type == Short.class) {
+        out.writeByte(SHORT);
+        out.writeShort((Short) value);
+      } else if (type == Byte.class) {
+        out.writeByte(BYTE);
+        out.writeByte((Byte) value);
+      } else if (type == Boolean.class) {
+        out.writeByte(BOOLEAN);
+        out.writeBoolean((Boolean) value);
+      } else if (type == Character.class) {
+        out.writeByte(CHARACTER);
+        out.writeChar((Character) value);
+      } else if (type == Float.class) {
+        out.writeByte(FLOAT);
+        out.writeFloat((Float) value);
+      } else if (type == Double.class) {
+        out.writeByte(DOUBLE);
+        out.writeDouble((Double) value);
+      } else if (type == BigDecimal.class) {
+        out.writeByte(BIG_DECIMAL);
+        writeString(value.toString());
+      } else if (type == BigInteger.class) {
+        out.writeByte(BIG_INTEGER);
+        writeString(value.toString());
+      } else if (type == Date.class) {
+        out.writeByte(DATE);
+        out.writeLong(((Date) value).getTime());
+      } else if (type == Timestamp.class) {
+        out.writeByte(TIMESTAMP);
+        out.writeLong(((Timestamp) value).getTime());
+        out.writeInt(((Timestamp) value).getNanos());
+      } else if (type == java.sql.Date.class) {
+        out.writeByte(SQL_DATE);
+        out.writeLong(((java.sql.Date) value).getTime());
+      } else if (type == Time.class) {
+        out.writeByte(TIME);
+        out.writeLong(((Time) value).getTime());
+      } else if (value instanceof Enum) {
+        out.writeByte(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass());
+        writeString(((Enum<?>) value).name());
+      } else if (type == byte[].class) {
+        out.writeByte(BYTE_ARRAY);
+        writeBytes((byte[]) value);
+      } else {
+        writeReference(value, type);
+      }
+    }
+
+    private void writeReference(Object value, Class<?> type) throws Exception {
+      Integer handle = handles.get(value);
+      if (handle != null) {
+        out.writeByte(REFERENCE);
+        out.writeInt(handle);
+        return;
+      }
+      handles.put(value, handles.size());
+      if (type == ArrayList.class) {
+        writeCollection(ARRAY_LIST, (Collection<?>) value);
+      } else if (type == LinkedList.class) {
+        writeCollection(LINKED_LIST, (Collection<?>) value);
+      } else if (type == HashSet.class) {
+        writeCollection(HASH_SET, (Collection<?>) value);
+      } else if (type == LinkedHashSet.class) {
+        writeCollection(LINKED_HASH_SET, (Collection<?>) value);
+      } else if (type == HashMap.class) {
+        writeMap(HASH_MAP, (Map<?, ?>) value);
+      } else if (type == LinkedHashMap.class) {
+        writeMap(LINKED_HASH_MAP, (Map<?, ?>) value);
+      } else {
+        BeanPlan plan = planFor(type);
+        if (plan == UNSUPPORTED) {
+          if (!(value instanceof Serializable)) {
+            throw new CacheException("Error serializing object.  Cause: not serializable: " + type.getName());
+          }
+          out.writeByte(SERIALIZED);
+          writeBytes(fallback.serialize((Serializable) value));
+        } else {
+          out.writeByte(BEAN);
+          writeClass(type);
+          out.writeInt(plan.getters.length);
+          for (Invoker getter : plan.getters) {
+            write(getter.invoke(value, null));
+          }
+        }
+      }
+    }
+
+    private void writeCollection(byte tag, Collection<?> collection) throws Exception {
+      out.writeByte(tag);
+      out.writeInt(collection.size());
+      for (Object element : collection) {
+        write(element);
+      }
+    }
+
+    private void writeMap(byte tag, Map<?, ?> map) throws Exception {
+      out.writeByte(tag);
+      out.writeInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        write(entry.getKey());
+        write(entry.getValue());
+      }
+    }
+
+    private void writeClass(Class<?> type) throws IOException {
+      Integer id = classes.get(type);
+      if (id != null) {
+        out.writeInt(id);
+      } else {
+        classes.put(type, classes.size());
+        out.writeInt(-1);
+        writeString(type.getName());
+      }
+    }
+
+    private void writeString(String value) throws IOException {
+      writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private final class Reader {
+
+    private final DataInputStream in;
+    private final List<Object> handles = new ArrayList<>();
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    private Reader(DataInputStream in) {
+      this.in = in;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object read() throws Exception {
+      byte tag = in.readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case REFERENCE:
+          return handles.get(in.readInt());
+        case STRING:
+          return readString();
+        case INTEGER:
+          return in.readInt();
+        case LONG:
+          return in.readLong();
+        case SHORT:
+          return in.readShort();
+        case BYTE:
+          return in.readByte();
+        case BOOLEAN:
+          return in.readBoolean();
+        case CHARACTER:
+          return in.readChar();
+        case FLOAT:
+          return in.readFloat();
+        case DOUBLE:
+          return in.readDouble();
+        case BIG_DECIMAL:
+          return new BigDecimal(readString());
+        case BIG_INTEGER:
+          return new BigInteger(readString());
+        case DATE:
+          return new Date(in.readLong());
+        case TIMESTAMP:
+          Timestamp timestamp = new Timestamp(in.readLong());
+          timestamp.setNanos(in.readInt());
+          return timestamp;
+        case SQL_DATE:
+          return new java.sql.Date(in.readLong());
+        case TIME:
+          return new Time(in.readLong());
+        case ENUM:
+          Class enumType = readClass();
+          return Enum.valueOf(enumType, readString());
+        case BYTE_ARRAY:
+          return readBytes();
+        case ARRAY_LIST:
+          return readCollection(new ArrayList<>());
+        case LINKED_LIST:
+          return readCollection(new LinkedList<>());
+        case HASH_SET:
+          return readCollection(new HashSet<>());
+        case LINKED_HASH_SET:
+          return readCollection(new LinkedHashSet<>());
+        case HASH_MAP:
+          return readMap(new HashMap<>());
+        case LINKED_HASH_MAP:
+          return readMap(new LinkedHashMap<>());
+        case BEAN:
+          return readBean();
+        case SERIALIZED:
+          Object value = fallback.deserialize(readBytes());
+          handles.add(value);
+          return value;
+        default:
+          throw new CacheException("Error deserializing object.  Cause: unknown tag " + tag);
+      }
+    }
+
+    private Object readCollection(Collection<Object> collection) throws Exception {
+      handles.add(collection);
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        collection.add(read());
+      }
+      return collection;
+    }
+
+    private Object readMap(Map<Object, Object> map) throws Exception {
+      handles.add(map);
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        Object key = read();
+        map.put(key, read());
+      }
+      return map;
+    }
+
+    private Object readBean() throws Exception {
+      Class<?> type = readClass();
+      BeanPlan plan = planFor(type);
+      int propertyCount = in.readInt();
+      if (plan == UNSUPPORTED || plan.setters.length != propertyCount) {
+        throw new CacheException("Error deserializing object.  Cause: " + type.getName() + " has changed");
+      }
+      Object bean = objectFactory.create(type);
+      handles.add(bean);
+      for (Invoker setter : plan.setters) {
+        setter.invoke(bean, new Object[] { read() });
+      }
+      return bean;
+    }
+
+    private Class<?> readClass() throws IOException, ClassNotFoundException {
+      int id = in.readInt();
+      if (id >= 0) {
+        return classes.get(id);
+      }
+      Class<?> type = Resources.classForName(readString());
+      classes.add(type);
+      return type;
+    }
+
+    private String readString() throws IOException {
+      return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes() throws IOException {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      return bytes;
+    }
+  }
+
+}
@@ -0,0 +1,215 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PoolMetrics} that records checkout and usage times in histograms with fixed buckets, and counts timeouts,
+ * bad connections and overdue claims. Recording does not allocate, nor lock.
+ *
+ * @since 3.5.7
+ */
+public class HistogramPoolMetrics implements PoolMetrics {
+
+  private final Histogram checkoutHistogram = new Histogram();
+  private final Histogram usageHistogram = new Histogram();
+  private final LongAdder timeoutCount = new LongAdder();
+  private final LongAdder badConnectionCount = new LongAdder();
+  private final LongAdder overdueClaimCount = new LongAdder();
+  private volatile PoolState state;
+
+  @Override
+  public void bind(PoolState state) {
+    this.state = state;
+  }
+
+  @Override
+  public void recordCheckout(long nanos) {
+    checkoutHistogram.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+  }
+
+  @Override
+  public void recordUsage(long millis) {
+    usageHistogram.record(millis);
+  }
+
+  @Override
+  public void recordTimeout() {
+    timeoutCount.increment();
+  }
+
+  @Override
+  public void recordBadConnection() {
+    badConnectionCount.increment();
+  }
+
+  @Override
+  public void recordOverdueClaim() {
+    overdueClaimCount.increment();
+  }
+
+  /**
+   * Gets the time spent checking out connections, in microseconds.
+   *
+   * @return the checkout histogram
+   */
+  public Histogram getCheckoutHistogram() {
+    return checkoutHistogram;
+  }
+
+  /**
+   * Gets the time connections were checked out before being returned, in milliseconds.
+   *
+   * @return the usage histogram
+   */
+  public Histogram getUsageHistogram() {
+    return usageHistogram;
+  }
+
+  public long getTimeoutCount() {
+    return timeoutCount.sum();
+  }
+
+  public long getBadConnectionCount() {
+    return badConnectionCount.sum();
+  }
+
+  public long getOverdueClaimCount() {
+    return overdueClaimCount.sum();
+  }
+
+  public int getActiveConnectionCount() {
+    PoolState s = state;
+    return s == null ? 0 : s.getActiveConnectionCount();
+  }
+
+  public int getIdleConnectionCount() {
+    PoolState s = state;
+    return s == null ? 0 : s.getIdleConnectionCount();
+  }
+
+  public int getWaitingThreadCount() {
+    PoolState s = state;
+    return s == null ? 0 : s.getWaitingThreadCount();
+  }
+
+  @Override
+  public String toString() {
+    return "checkout[us]=" + checkoutHistogram + ", usage[ms]=" + usageHistogram + ", timeouts=" + getTimeoutCount()
+        + ", badConnections=" + getBadConnectionCount() + ", overdueClaims=" + getOverdueClaimCount() + ", active="
+        + getActiveConnectionCount() + ", idle=" + getIdleConnectionCount() + ", waiting=" + getWaitingThreadCount();
+  }
+
+  /**
+   * Histogram of non negative values with fixed, logarithmic buckets. Values up to 15 have their own bucket, larger
+   * values share a bucket with the values less than 12.5% apart.
+   */
+  public static class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+    private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram() {
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    public void record(long value) {
+      long v = Math.max(value, 0);
+      buckets[indexOf(v)].increment();
+      count.increment();
+      sum.add(v);
+      long current;
+      while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+        // retry
+      }
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public long getMax() {
+      return max.get();
+    }
+
+    public double getMean() {
+      long n = count.sum();
+      return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Gets the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile
+     *          the percentile, between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, or 0 when nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+      long n = count.sum();
+      if (n == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += buckets[i].sum();
+        if (seen >= rank) {
+          return Math.min(upperBoundOf(i), getMax());
+        }
+      }
+      return getMax();
+    }
+
+    static int indexOf(long value) {
+      if (value < LINEAR_BUCKETS) {
+        return (int) value;
+      }
+      int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+      int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+      return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int index) {
+      if (index < LINEAR_BUCKETS) {
+        return index;
+      }
+      int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+      long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+      int shift = exponent - SUB_BUCKET_BITS;
+      long upper = ((subBucket + 1) << shift) - 1;
+      return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    @Override
+    public String toString() {
+      return "{count=" + getCount() + ", mean=" + String.format("%.1f", getMean()) + ", p50="
+          + getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax() + "}";
+    }
+  }
+
+}
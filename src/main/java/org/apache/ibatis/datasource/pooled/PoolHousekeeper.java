@@ -0,0 +1,69 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Periodically runs {@link PooledDataSource#housekeep()} on a daemon thread shared by all pools.
+ * <p>
+ * The data source is only weakly referenced, so an unreachable pool is still collected and its task cancelled.
+ */
+class PoolHousekeeper implements Runnable {
+
+  private static final Log log = LogFactory.getLog(PoolHousekeeper.class);
+
+  private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "mybatis-pool-housekeeper");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final WeakReference<PooledDataSource> dataSource;
+  private final ScheduledFuture<?> future;
+
+  PoolHousekeeper(PooledDataSource dataSource, long interval) {
+    this.dataSource = new WeakReference<>(dataSource);
+    this.future = scheduler.scheduleWithFixedDelay(this, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  void cancel() {
+    future.cancel(false);
+  }
+
+  @Override
+  public void run() {
+    PooledDataSource ds = dataSource.get();
+    if (ds == null) {
+      cancel();
+      return;
+    }
+    try {
+      ds.housekeep();
+    } catch (RuntimeException e) {
+      // keep the task scheduled, the next run may succeed
+      log.warn("Housekeeping of the connection pool failed. Cause: " + e);
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * Receives the events of a {@link PooledDataSource}, to publish them to a monitoring system.
+ * <p>
+ * The methods are called on the request threads while checking out and returning connections, so implementations
+ * must be thread-safe and should neither block nor allocate. {@link HistogramPoolMetrics} is a ready to use
+ * implementation.
+ *
+ * @since 3.5.7
+ * @see PooledDataSource#setPoolMetrics(PoolMetrics)
+ */
+public interface PoolMetrics {
+
+  /**
+   * Called when the metrics are set on a data source. Gauges like the number of active, idle or waiting connections
+   * can be read from the given state at any time.
+   *
+   * @param state
+   *          the state of the pool
+   */
+  default void bind(PoolState state) {
+    // NOP
+  }
+
+  /**
+   * A connection has been checked out.
+   *
+   * @param nanos
+   *          the time spent getting the connection, including waiting for it and opening it
+   */
+  void recordCheckout(long nanos);
+
+  /**
+   * A connection has been returned to the pool.
+   *
+   * @param millis
+   *          the time the connection was checked out
+   */
+  void recordUsage(long millis);
+
+  /**
+   * A thread has waited for <code>poolTimeToWait</code> without getting a connection, and is about to try again.
+   */
+  void recordTimeout();
+
+  /**
+   * A bad connection has been discarded.
+   */
+  default void recordBadConnection() {
+    // NOP
+  }
+
+  /**
+   * A connection checked out for longer than <code>poolMaximumCheckoutTime</code> has been claimed.
+   */
+  default void recordOverdueClaim() {
+    // NOP
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,11 +15,23 @@
  */
 package org.apache.ibatis.datasource.pooled;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 连接池状态统计对象
+ * <p>
+ * The collections and counters are lock-free. A connection returned while threads are waiting is handed directly to
+ * the longest waiting thread instead of going through the idle connections.
+ * <p>
+ * Since 3.5.7 the connection collections are {@link ConcurrentLinkedDeque}s and the statistics are {@link LongAdder}s
+ * instead of {@code List}s and {@code long}s, subclasses accessing these protected fields must be recompiled. The idle
+ * connections must only be changed through this class, which keeps their count.
+ *
  * @author Clinton Begin
  */
 public class PoolState {
@@ -27,74 +39,217 @@ public class PoolState {
   protected PooledDataSource dataSource;
 
   // 空闲连接集合，持有池的空闲链接，add or  remove在这控制
-  protected final List<PooledConnection> idleConnections = new ArrayList<>();
+  protected final ConcurrentLinkedDeque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
 
   // 活动连接集合
-  protected final List<PooledConnection> activeConnections = new ArrayList<>();
+  protected final ConcurrentLinkedDeque<PooledConnection> activeConnections = new ConcurrentLinkedDeque<>();
   // 请求计数
-  protected long requestCount = 0;
+  protected final LongAdder requestCount = new LongAdder();
   // 累计请求时间
-  protected long accumulatedRequestTime = 0;
+  protected final LongAdder accumulatedRequestTime = new LongAdder();
   // 累计等待时间
-  protected long accumulatedCheckoutTime = 0;
+  protected final LongAdder accumulatedCheckoutTime = new LongAdder();
   // 声明的过期连接计数
-  protected long claimedOverdueConnectionCount = 0;
+  protected final LongAdder claimedOverdueConnectionCount = new LongAdder();
   // 累计的过期连接的等待时间
-  protected long accumulatedCheckoutTimeOfOverdueConnections = 0;
+  protected final LongAdder accumulatedCheckoutTimeOfOverdueConnections = new LongAdder();
   // 累计等待时间
-  protected long accumulatedWaitTime = 0;
+  protected final LongAdder accumulatedWaitTime = new LongAdder();
   //等待计数
-  protected long hadToWaitCount = 0;
+  protected final LongAdder hadToWaitCount = new LongAdder();
   // 错误的连接计数
-  protected long badConnectionCount = 0;
+  protected final LongAdder badConnectionCount = new LongAdder();
+
+  // idle connections, including the ones being added, so that the maximum is never exceeded
+  private final AtomicInteger idleConnectionCount = new AtomicInteger();
+  // idle and active connections, plus the ones being created or handed over
+  private final AtomicInteger totalConnections = new AtomicInteger();
+  private final AtomicInteger waitingThreads = new AtomicInteger();
+  // fair, so that waiting threads are served in FIFO order
+  private final SynchronousQueue<PooledConnection> handOffQueue = new SynchronousQueue<>(true);
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
 
-  public synchronized long getRequestCount() {
-    return requestCount;
+  public long getRequestCount() {
+    return requestCount.sum();
   }
 
-  public synchronized long getAverageRequestTime() {
-    return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+  public long getAverageRequestTime() {
+    long requests = requestCount.sum();
+    return requests == 0 ? 0 : accumulatedRequestTime.sum() / requests;
   }
 
-  public synchronized long getAverageWaitTime() {
-    return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+  public long getAverageWaitTime() {
+    long waits = hadToWaitCount.sum();
+    return waits == 0 ? 0 : accumulatedWaitTime.sum() / waits;
 
   }
 
-  public synchronized long getHadToWaitCount() {
-    return hadToWaitCount;
+  public long getHadToWaitCount() {
+    return hadToWaitCount.sum();
   }
 
-  public synchronized long getBadConnectionCount() {
-    return badConnectionCount;
+  public long getBadConnectionCount() {
+    return badConnectionCount.sum();
   }
 
-  public synchronized long getClaimedOverdueConnectionCount() {
-    return claimedOverdueConnectionCount;
+  public long getClaimedOverdueConnectionCount() {
+    return claimedOverdueConnectionCount.sum();
   }
 
-  public synchronized long getAverageOverdueCheckoutTime() {
-    return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+  public long getAverageOverdueCheckoutTime() {
+    long claimed = claimedOverdueConnectionCount.sum();
+    return claimed == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections.sum() / claimed;
   }
 
-  public synchronized long getAverageCheckoutTime() {
-    return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
+  public long getAverageCheckoutTime() {
+    long requests = requestCount.sum();
+    return requests == 0 ? 0 : accumulatedCheckoutTime.sum() / requests;
   }
 
-  public synchronized int getIdleConnectionCount() {
-    return idleConnections.size();
+  public int getIdleConnectionCount() {
+    return idleConnectionCount.get();
   }
 
-  public synchronized int getActiveConnectionCount() {
+  public int getActiveConnectionCount() {
     return activeConnections.size();
   }
 
+  /**
+   * Gets the number of threads currently waiting for a connection.
+   *
+   * @return the number of waiting threads
+   * @since 3.5.7
+   */
+  public int getWaitingThreadCount() {
+    return waitingThreads.get();
+  }
+
+  /**
+   * Reserves room for a new connection if the pool holds less than the given number of connections.
+   *
+   * @param maximumConnections
+   *          the maximum number of connections
+   * @return true if a connection may be created, it must be released if its creation fails
+   */
+  boolean reserveConnection(int maximumConnections) {
+    for (;;) {
+      int total = totalConnections.get();
+      if (total >= maximumConnections) {
+        return false;
+      }
+      if (totalConnections.compareAndSet(total, total + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Gives back the room of a connection that has left the pool.
+   */
+  void releaseConnection() {
+    totalConnections.decrementAndGet();
+  }
+
+  /**
+   * Takes the oldest idle connection out of the pool.
+   *
+   * @return the connection, or null if there is no idle connection
+   */
+  PooledConnection pollIdleConnection() {
+    PooledConnection conn = idleConnections.pollFirst();
+    if (conn != null) {
+      idleConnectionCount.decrementAndGet();
+    }
+    return conn;
+  }
+
+  /**
+   * Returns a connection to the pool: hands it over to a waiting thread if any, otherwise adds it to the idle
+   * connections when there is room for it.
+   *
+   * @param conn
+   *          the connection to return
+   * @param maximumIdleConnections
+   *          the maximum number of idle connections
+   * @return false if the connection was neither handed over nor kept and must be closed
+   */
+  boolean returnConnection(PooledConnection conn, int maximumIdleConnections) {
+    if (handOff(conn)) {
+      return true;
+    }
+    if (!reserveIdleConnection(maximumIdleConnections)) {
+      return false;
+    }
+    idleConnections.addLast(conn);
+    // a thread may have started waiting after the hand off attempt and missed the idle connection
+    if (waitingThreads.get() > 0) {
+      // the connection keeps its room until it is handed over, so that no other one can take it meanwhile
+      PooledConnection idle = idleConnections.pollFirst();
+      if (idle != null) {
+        if (handOff(idle)) {
+          idleConnectionCount.decrementAndGet();
+        } else {
+          idleConnections.addFirst(idle);
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean reserveIdleConnection(int maximumIdleConnections) {
+    for (;;) {
+      int idle = idleConnectionCount.get();
+      if (idle >= maximumIdleConnections) {
+        return false;
+      }
+      if (idleConnectionCount.compareAndSet(idle, idle + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Waits for a connection to be returned to the pool.
+   *
+   * @param timeToWait
+   *          the maximum time to wait in milliseconds
+   * @return the connection, or null if none was returned in time
+   * @throws InterruptedException
+   *           if interrupted while waiting
+   */
+  PooledConnection awaitConnection(long timeToWait) throws InterruptedException {
+    waitingThreads.incrementAndGet();
+    try {
+      PooledConnection conn = pollIdleConnection();
+      if (conn != null) {
+        return conn;
+      }
+      return handOffQueue.poll(timeToWait, TimeUnit.MILLISECONDS);
+    } finally {
+      waitingThreads.decrementAndGet();
+    }
+  }
+
+  private boolean handOff(PooledConnection conn) {
+    for (int i = 0; waitingThreads.get() > 0; i++) {
+      if (handOffQueue.offer(conn)) {
+        return true;
+      }
+      // the waiting thread is about to poll the queue
+      if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(10_000);
+      } else {
+        Thread.yield();
+      }
+    }
+    return false;
+  }
+
   @Override
-  public synchronized String toString() {
+  public String toString() {
     StringBuilder builder = new StringBuilder();
     builder.append("\n===CONFINGURATION==============================================");
     builder.append("\n jdbcDriver                     ").append(dataSource.getDriver());
@@ -108,6 +263,9 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolMinIdleConnections         ").append(dataSource.poolMinimumIdleConnections);
+    builder.append("\n poolMaxLifetime                ").append(dataSource.poolMaximumLifetime);
+    builder.append("\n poolHousekeepingInterval       ").append(dataSource.poolHousekeepingInterval);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
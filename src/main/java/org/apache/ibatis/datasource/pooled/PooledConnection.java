@@ -44,7 +44,7 @@ class PooledConnection implements InvocationHandler {
   private long lastUsedTimestamp;
   // 链接的唯一码
   private int connectionTypeCode;
-  private boolean valid;
+  private volatile boolean valid;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -72,6 +72,15 @@ class PooledConnection implements InvocationHandler {
     valid = false;
   }
 
+  /**
+   * Method to see if the connection has been invalidated, without checking the real connection.
+   *
+   * @return True if the connection has been invalidated
+   */
+  boolean isInvalidated() {
+    return !valid;
+  }
+
   /**
    * Method to see if the connection is usable.
    *
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -32,7 +32,7 @@ import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
 /**
- * This is a simple, synchronous, thread-safe database connection pool.
+ * This is a simple, thread-safe database connection pool.
  *
  * @author Clinton Begin
  */
@@ -55,8 +55,13 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected int poolMinimumIdleConnections;
+  protected long poolMaximumLifetime;
+  protected long poolHousekeepingInterval;
 
-  private int expectedConnectionTypeCode;
+  private volatile int expectedConnectionTypeCode;
+  private PoolHousekeeper housekeeper;
+  private PoolMetrics metrics;
 
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
@@ -264,6 +269,67 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * The number of idle connections the housekeeping keeps in the pool. Only used when housekeeping is enabled.
+   *
+   * @param poolMinimumIdleConnections
+   *          The minimum number of idle connections
+   * @since 3.5.7
+   * @see #setPoolHousekeepingInterval(long)
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+  }
+
+  /**
+   * The maximum time a connection is kept in the pool since its creation. A connection that gets older is closed when
+   * it is returned, or by the housekeeping while idle.
+   *
+   * @param milliseconds
+   *          the maximum lifetime, 0 for no limit
+   * @since 3.5.7
+   */
+  public void setPoolMaximumLifetime(long milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+  }
+
+  /**
+   * Enables the housekeeping of the pool. It runs in the background every given number of milliseconds, pings the idle
+   * connections that need it, closes the ones past their maximum lifetime and opens connections up to the minimum
+   * number of idle connections. While enabled, checking out or returning a connection never runs the ping query.
+   *
+   * @param milliseconds
+   *          the delay between two housekeeping runs, 0 to disable the housekeeping
+   * @since 3.5.7
+   * @see #setPoolMinimumIdleConnections(int)
+   * @see #setPoolMaximumLifetime(long)
+   */
+  public synchronized void setPoolHousekeepingInterval(long milliseconds) {
+    this.poolHousekeepingInterval = milliseconds;
+    if (housekeeper != null) {
+      housekeeper.cancel();
+      housekeeper = null;
+    }
+    if (milliseconds > 0) {
+      housekeeper = new PoolHousekeeper(this, milliseconds);
+    }
+  }
+
+  /**
+   * Sets the metrics the pool reports its checkouts, returns and timeouts to.
+   *
+   * @param metrics
+   *          the metrics, or null to stop reporting
+   * @since 3.5.7
+   * @see HistogramPoolMetrics
+   */
+  public void setPoolMetrics(PoolMetrics metrics) {
+    if (metrics != null) {
+      metrics.bind(state);
+    }
+    this.metrics = metrics;
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -334,39 +400,34 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  public long getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  public long getPoolHousekeepingInterval() {
+    return poolHousekeepingInterval;
+  }
+
+  public PoolMetrics getPoolMetrics() {
+    return metrics;
+  }
+
   /**
    * Closes all active and idle connections in the pool.
    */
   public void forceCloseAll() {
     synchronized (state) {
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
-      for (int i = state.activeConnections.size(); i > 0; i--) {
-        try {
-          PooledConnection conn = state.activeConnections.remove(i - 1);
-          conn.invalidate();
-
-          Connection realConn = conn.getRealConnection();
-          if (!realConn.getAutoCommit()) {
-            realConn.rollback();
-          }
-          realConn.close();
-        } catch (Exception e) {
-          // ignore
-        }
+      PooledConnection conn;
+      while ((conn = state.activeConnections.pollLast()) != null) {
+        closeRemovedConnection(conn);
       }
-      for (int i = state.idleConnections.size(); i > 0; i--) {
-        try {
-          PooledConnection conn = state.idleConnections.remove(i - 1);
-          conn.invalidate();
-
-          Connection realConn = conn.getRealConnection();
-          if (!realConn.getAutoCommit()) {
-            realConn.rollback();
-          }
-          realConn.close();
-        } catch (Exception e) {
-          // ignore
-        }
+      while ((conn = state.pollIdleConnection()) != null) {
+        closeRemovedConnection(conn);
       }
     }
     if (log.isDebugEnabled()) {
@@ -374,6 +435,21 @@ public class PooledDataSource implements DataSource {
     }
   }
 
+  private void closeRemovedConnection(PooledConnection conn) {
+    state.releaseConnection();
+    try {
+      conn.invalidate();
+
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
   public PoolState getPoolState() {
     return state;
   }
@@ -390,36 +466,43 @@ public class PooledDataSource implements DataSource {
   protected void pushConnection(PooledConnection conn) throws SQLException {
 
     // 从活跃连接池remove掉，增加到空闲连接池
-    synchronized (state) {
-      state.activeConnections.remove(conn);
+    if (conn.isInvalidated() || !state.activeConnections.remove(conn)) {
+      // closed twice, claimed as overdue or removed by forceCloseAll(), the real connection is no longer ours
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state.badConnectionCount.increment();
+      if (metrics != null) {
+        metrics.recordBadConnection();
+      }
+      return;
+    }
+    boolean kept = false;
+    try {
       if (conn.isValid()) {
-        // 如果空闲连接数 < 最大的空闲连接数，则根据代理连接（因为getConnection获取到的是代理连接）获取真正的连接数，并new一个连接到空闲连接，同时，将原来的代理连接空闲掉
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
-
-          // 如果还有事务，则回滚掉
-          if (!conn.getRealConnection().getAutoCommit()) {
-            conn.getRealConnection().rollback();
-          }
+        long checkoutTime = conn.getCheckoutTime();
+        state.accumulatedCheckoutTime.add(checkoutTime);
+        if (metrics != null) {
+          metrics.recordUsage(checkoutTime);
+        }
 
+        // 如果还有事务，则回滚掉
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        if (conn.getConnectionTypeCode() == expectedConnectionTypeCode && !isExpired(conn)) {
+          // 根据代理连接获取真正的连接，并new一个连接交给等待的线程或放到空闲连接，同时，将原来的代理连接无效掉
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
-          state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
           conn.invalidate();
-          if (log.isDebugEnabled()) {
+          kept = state.returnConnection(newConn, poolMaximumIdleConnections);
+          if (kept && log.isDebugEnabled()) {
             log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
           }
-          // 唤醒其他被阻塞的线程
-          state.notifyAll();
-        } else {
+        }
+        if (!kept) {
           // 如果空闲连接数 >= 最大的空闲连接数，则将连接关闭掉，并且将代理连接无效掉
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
-
-          // 如果还有事务，则回滚掉
-          if (!conn.getRealConnection().getAutoCommit()) {
-            conn.getRealConnection().rollback();
-          }
           // 注：这里是conn.getRealConnection()获取到的真正的连接，所以调用close方法并不会被PooledConnection类动态代理
           conn.getRealConnection().close();
           if (log.isDebugEnabled()) {
@@ -431,7 +514,15 @@ public class PooledDataSource implements DataSource {
         if (log.isDebugEnabled()) {
           log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
         }
-        state.badConnectionCount++;
+        state.badConnectionCount.increment();
+        if (metrics != null) {
+          metrics.recordBadConnection();
+        }
+        conn.invalidate();
+      }
+    } finally {
+      if (!kept) {
+        state.releaseConnection();
       }
     }
   }
@@ -441,7 +532,7 @@ public class PooledDataSource implements DataSource {
    *    1、如果线程池中有空闲连接数，则直接获取一条空闲连接数，并添加到活跃线程池中
    *    2、如果线程池中没有空闲连接，且活跃线程数 < 线程池最大活跃线程数，则通过dataSource获取connnection并创建一条新连接
    *    3、如果线程池中没有空闲连接，且活跃线程数 > 线程池最大活跃线程数，则拿最老的一条活跃线程，看是否超时，若超时，则回收掉，并且创建一条新的连接，
-   *       否则，进入state.wait()等待状态，等待空闲连接数被创建时（ 如果空闲连接数 < 最大的空闲连接数），再通过notifyAll来唤醒该线程去创建新的线程
+   *       否则，进入等待状态，等待其他线程归还连接，归还的连接会直接交给等待最久的线程，超过poolTimeToWait后重新尝试
    *
    * @param username
    * @param password
@@ -452,110 +543,101 @@ public class PooledDataSource implements DataSource {
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long start = System.nanoTime();
     int localBadConnectionCount = 0;
 
     while (conn == null) {
-      synchronized (state) {
-        // 如果state中空闲的连接不为空时，直接从state中的idelConnections集合中获取
-        if (!state.idleConnections.isEmpty()) {
-          // Pool has available connection
-          conn = state.idleConnections.remove(0);
+      // 如果state中空闲的连接不为空时，直接从state中的idelConnections集合中获取
+      conn = state.pollIdleConnection();
+      if (conn != null) {
+        // Pool has available connection
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+        }
+      } else if (state.reserveConnection(poolMaximumActiveConnections)) {
+        // 如果PoolState中的空闲连接数为空，但是链接数小于PooledDataSource设置的最大链接数，则可以新建链接
+        // Pool does not have available connection
+        // Can create new connection
+        try {
+          conn = new PooledConnection(dataSource.getConnection(), this);
+        } catch (SQLException | RuntimeException e) {
+          state.releaseConnection();
+          throw e;
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Created connection " + conn.getRealHashCode() + ".");
+        }
+      } else {
+        // Cannot create new connection
+        //如果PoolState中的空闲连接数为空，并且链接数不小于PooledDataSource设置的最大链接数，
+        // 则先获得活跃链接中最先使用链接（即最老的），判断是否超时时间，如果超时了，则重新从活跃连接池中去掉该连接，然后在PoolState设置一些信息，返回该连接
+        PooledConnection oldestActiveConnection = state.activeConnections.peekFirst();
+        long longestCheckoutTime = oldestActiveConnection == null ? 0 : oldestActiveConnection.getCheckoutTime();
+        if (longestCheckoutTime > poolMaximumCheckoutTime && state.activeConnections.remove(oldestActiveConnection)) {
+          // Can claim overdue connection
+          state.claimedOverdueConnectionCount.increment();
+          state.accumulatedCheckoutTimeOfOverdueConnections.add(longestCheckoutTime);
+          state.accumulatedCheckoutTime.add(longestCheckoutTime);
+          if (metrics != null) {
+            metrics.recordOverdueClaim();
+            metrics.recordUsage(longestCheckoutTime);
+          }
+          if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+            try {
+              oldestActiveConnection.getRealConnection().rollback();
+            } catch (SQLException e) {
+              /*
+                 Just log a message for debug and continue to execute the following
+                 statement like nothing happened.
+                 Wrap the bad connection with a new PooledConnection, this will help
+                 to not interrupt current executing thread and give current thread a
+                 chance to join the next competition for another valid/good database
+                 connection. At the end of this loop, bad {@link @conn} will be set as null.
+               */
+              log.debug("Bad connection. Could not roll back");
+            }
+          }
+          conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+          conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
+          conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+          oldestActiveConnection.invalidate();
           if (log.isDebugEnabled()) {
-            log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+            log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
           }
         } else {
-          // 如果PoolState中的空闲连接数为空，但是活跃的链接数小于PooledDataSource设置的最大链接数，则可以新建链接
-          // Pool does not have available connection
-          if (state.activeConnections.size() < poolMaximumActiveConnections) {
-            // Can create new connection
-            conn = new PooledConnection(dataSource.getConnection(), this);
+          // 如果PoolState中的空闲连接数为空，并且链接数不小于PooledDataSource设置的最大链接数，则只能等待。当pushConnection()方法时，会直接把连接交给等待最久的线程
+          // Must wait
+          try {
+            if (!countedWait) {
+              state.hadToWaitCount.increment();
+              countedWait = true;
+            }
             if (log.isDebugEnabled()) {
-              log.debug("Created connection " + conn.getRealHashCode() + ".");
+              log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
             }
-          } else {
-            // Cannot create new connection
-            //如果PoolState中的空闲连接数为空，并且活跃的链接数不小于PooledDataSource设置的最大链接数，
-            // 则先获得活跃链接中最先使用链接（即最老的），判断是否超时时间，如果超时了，则重新从活跃连接池中去掉该连接，然后在PoolState设置一些信息，返回该连接
-            PooledConnection oldestActiveConnection = state.activeConnections.get(0);
-            long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
-            if (longestCheckoutTime > poolMaximumCheckoutTime) {
-              // Can claim overdue connection
-              state.claimedOverdueConnectionCount++;
-              state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
-              state.accumulatedCheckoutTime += longestCheckoutTime;
-              state.activeConnections.remove(oldestActiveConnection);
-              if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
-                try {
-                  oldestActiveConnection.getRealConnection().rollback();
-                } catch (SQLException e) {
-                  /*
-                     Just log a message for debug and continue to execute the following
-                     statement like nothing happened.
-                     Wrap the bad connection with a new PooledConnection, this will help
-                     to not interrupt current executing thread and give current thread a
-                     chance to join the next competition for another valid/good database
-                     connection. At the end of this loop, bad {@link @conn} will be set as null.
-                   */
-                  log.debug("Bad connection. Could not roll back");
-                }
-              }
-              conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
-              conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
-              conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
-              oldestActiveConnection.invalidate();
-              if (log.isDebugEnabled()) {
-                log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
-              }
-            } else {
-              // 如果PoolState中的空闲连接数为空，并且活跃的链接数大于PooledDataSource设置的最大活跃链接数，则只能等待。当pushConnection()方法时，会重新唤醒
-              // Must wait
-              try {
-                if (!countedWait) {
-                  state.hadToWaitCount++;
-                  countedWait = true;
-                }
-                if (log.isDebugEnabled()) {
-                  log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
-                }
-                long wt = System.currentTimeMillis();
-                // 这里使用了state的状态进行等待,与state.notifyAll()对称使用
-                state.wait(poolTimeToWait);
-                state.accumulatedWaitTime += System.currentTimeMillis() - wt;
-              } catch (InterruptedException e) {
-                break;
-              }
+            long wt = System.currentTimeMillis();
+            conn = state.awaitConnection(poolTimeToWait);
+            state.accumulatedWaitTime.add(System.currentTimeMillis() - wt);
+            if (conn == null && metrics != null) {
+              metrics.recordTimeout();
             }
+          } catch (InterruptedException e) {
+            break;
           }
         }
-        if (conn != null) {
-          // ping to server and check the connection is valid or not
-          if (conn.isValid()) {
-            if (!conn.getRealConnection().getAutoCommit()) {
-              conn.getRealConnection().rollback();
-            }
-            conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
-            conn.setCheckoutTimestamp(System.currentTimeMillis());
-            conn.setLastUsedTimestamp(System.currentTimeMillis());
-            state.activeConnections.add(conn);
-            state.requestCount++;
-            state.accumulatedRequestTime += System.currentTimeMillis() - t;
-          } else {
+      }
+      if (conn != null) {
+        conn = checkOut(conn, username, password, t);
+        if (conn == null) {
+          localBadConnectionCount++;
+          if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
             if (log.isDebugEnabled()) {
-              log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
-            }
-            state.badConnectionCount++;
-            localBadConnectionCount++;
-            conn = null;
-            if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
-              if (log.isDebugEnabled()) {
-                log.debug("PooledDataSource: Could not get a good connection to the database.");
-              }
-              throw new SQLException("PooledDataSource: Could not get a good connection to the database.");
+              log.debug("PooledDataSource: Could not get a good connection to the database.");
             }
+            throw new SQLException("PooledDataSource: Could not get a good connection to the database.");
           }
         }
       }
-
     }
 
     if (conn == null) {
@@ -565,9 +647,44 @@ public class PooledDataSource implements DataSource {
       throw new SQLException("PooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
     }
 
+    if (metrics != null) {
+      metrics.recordCheckout(System.nanoTime() - start);
+    }
     return conn;
   }
 
+  private PooledConnection checkOut(PooledConnection conn, String username, String password, long requestTimestamp) throws SQLException {
+    // ping to server and check the connection is valid or not
+    boolean checkedOut = false;
+    try {
+      if (conn.isValid()) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        state.activeConnections.addLast(conn);
+        state.requestCount.increment();
+        state.accumulatedRequestTime.add(System.currentTimeMillis() - requestTimestamp);
+        checkedOut = true;
+        return conn;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+      }
+      state.badConnectionCount.increment();
+      if (metrics != null) {
+        metrics.recordBadConnection();
+      }
+      return null;
+    } finally {
+      if (!checkedOut) {
+        state.releaseConnection();
+      }
+    }
+  }
+
   /**
    * Method to check to see if a connection is still usable
    *
@@ -576,6 +693,11 @@ public class PooledDataSource implements DataSource {
    * @return True if the connection is still usable
    */
   protected boolean pingConnection(PooledConnection conn) {
+    // the housekeeping pings idle connections in the background
+    return pingConnection(conn, poolHousekeepingInterval <= 0);
+  }
+
+  private boolean pingConnection(PooledConnection conn, boolean pingAllowed) {
     boolean result = true;
 
     try {
@@ -588,7 +710,7 @@ public class PooledDataSource implements DataSource {
     }
 
     // 发送ping（NO PING QUERY SET）请求：构建Connection对象，创建statement对象，利用statement发送executeQuery的请求，测试是否ping通
-    if (result && poolPingEnabled && poolPingConnectionsNotUsedFor >= 0
+    if (result && pingAllowed && poolPingEnabled && poolPingConnectionsNotUsedFor >= 0
         && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
       try {
         if (log.isDebugEnabled()) {
@@ -622,6 +744,49 @@ public class PooledDataSource implements DataSource {
     return result;
   }
 
+  private boolean isExpired(PooledConnection conn) {
+    return poolMaximumLifetime > 0 && conn.getAge() > poolMaximumLifetime;
+  }
+
+  /**
+   * Validates the idle connections, closes the expired ones and opens connections up to the minimum number of idle
+   * connections. Each idle connection is taken out of the pool while it is checked, so it is never handed out at the
+   * same time.
+   */
+  void housekeep() {
+    for (int i = state.getIdleConnectionCount(); i > 0; i--) {
+      PooledConnection conn = state.pollIdleConnection();
+      if (conn == null) {
+        break;
+      }
+      if (!isExpired(conn) && pingConnection(conn, true) && state.returnConnection(conn, poolMaximumIdleConnections)) {
+        continue;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Housekeeping closed connection " + conn.getRealHashCode() + ".");
+      }
+      closeRemovedConnection(conn);
+    }
+    while (state.getIdleConnectionCount() < Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections)
+        && state.reserveConnection(poolMaximumActiveConnections)) {
+      PooledConnection conn;
+      try {
+        conn = new PooledConnection(dataSource.getConnection(), this);
+      } catch (SQLException e) {
+        state.releaseConnection();
+        log.warn("Housekeeping could not open a connection. Cause: " + e);
+        return;
+      }
+      if (!state.returnConnection(conn, poolMaximumIdleConnections)) {
+        closeRemovedConnection(conn);
+        return;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Housekeeping created connection " + conn.getRealHashCode() + ".");
+      }
+    }
+  }
+
   /**
    * Unwraps a pooled connection to get to the 'real' connection
    *  通过代理链接对象获取真正的对象
@@ -15,13 +15,19 @@
  */
 package org.apache.ibatis.datasource.pooled;
 
+import java.util.Properties;
+
+import org.apache.ibatis.datasource.DataSourceException;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.io.Resources;
 
 /**
  * @author Clinton Begin
  */
 public class PooledDataSourceFactory extends UnpooledDataSourceFactory {
 
+  private static final String POOL_METRICS_PROPERTY = "poolMetrics";
+
   /**
    * 池化数据源工厂继承了非池化的数据源工厂，这里只是在构造器new了一个池化数据源
    */
@@ -29,4 +35,27 @@ public class PooledDataSourceFactory extends UnpooledDataSourceFactory {
     this.dataSource = new PooledDataSource();
   }
 
+  /**
+   * Besides the properties of the data source, accepts <code>poolMetrics</code> with the fully qualified name of a
+   * {@link PoolMetrics} implementation that has a public no-argument constructor.
+   */
+  @Override
+  public void setProperties(Properties properties) {
+    String metricsType = properties.getProperty(POOL_METRICS_PROPERTY);
+    if (metricsType == null) {
+      super.setProperties(properties);
+      return;
+    }
+    Properties dataSourceProperties = new Properties();
+    dataSourceProperties.putAll(properties);
+    dataSourceProperties.remove(POOL_METRICS_PROPERTY);
+    super.setProperties(dataSourceProperties);
+    try {
+      PoolMetrics metrics = (PoolMetrics) Resources.classForName(metricsType).getDeclaredConstructor().newInstance();
+      ((PooledDataSource) dataSource).setPoolMetrics(metrics);
+    } catch (Exception e) {
+      throw new DataSourceException("Error creating pool metrics of type '" + metricsType + "'. Cause: " + e, e);
+    }
+  }
+
 }
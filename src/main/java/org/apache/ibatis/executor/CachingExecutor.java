@@ -92,6 +92,11 @@ public class CachingExecutor implements Executor {
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    if (ms.getCache() == null || !ms.isUseCache() || resultHandler != null) {
+      // the second level cache is not used, let the delegate build the key only if its local cache needs it
+      flushCacheIfRequired(ms);
+      return delegate.query(ms, parameterObject, rowBounds, resultHandler);
+    }
     BoundSql boundSql = ms.getBoundSql(parameterObject);
     CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
     return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
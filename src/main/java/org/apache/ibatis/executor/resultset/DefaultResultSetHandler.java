@@ -16,17 +16,24 @@
 package org.apache.ibatis.executor.resultset;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.ibatis.annotations.AutomapConstructor;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
@@ -42,6 +49,7 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper.ColumnMetadata;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -49,10 +57,15 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
@@ -84,10 +97,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ReflectorFactory reflectorFactory;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  private final RowKeyTable nestedResultObjects = new RowKeyTable();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
 
+  // row keys are built in the probe and copied only when a new object is stored
+  private final CacheKey rowKeyProbe = new CacheKey();
+  private final Map<ResultMap, Map<String, List<RowKeyColumn>>> rowKeyColumns = new HashMap<>();
+  private ResultSetWrapper rowKeyColumnsResultSet;
+
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<>();
@@ -95,6 +113,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
+  // mapping plans of the current result set, the last one used is checked first
+  private final Map<String, ResultMappingPlan> mappingPlans = new HashMap<>();
+  private ResultSetWrapper mappingPlansResultSet;
+  private ResultMap lastPlanResultMap;
+  private String lastPlanColumnPrefix;
+  private ResultMappingPlan lastPlan;
+
+  // constructors resolved once, for automatic constructor mappings of the current result set and for the constructor
+  // mappings of result maps (null when the object factory has to be used)
+  private final Map<Class<?>, ConstructorAutoMapping> constructorAutoMappings = new HashMap<>();
+  private ResultSetWrapper constructorAutoMappingsResultSet;
+  private final Map<List<ResultMapping>, Constructor<?>> mappedConstructors = new IdentityHashMap<>();
+
+  // index of the next result set of the statement, for the metadata cache
+  private int resultSetIndex;
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
@@ -103,6 +137,43 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
+  private static class RowKeyColumn {
+    private final String column;
+    private final int columnIndex;
+    private final TypeHandler<?> typeHandler;
+
+    RowKeyColumn(String column, int columnIndex, TypeHandler<?> typeHandler) {
+      this.column = column;
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+    }
+
+    Object getValue(ResultSet rs) throws SQLException {
+      return columnIndex > 0 ? typeHandler.getResult(rs, columnIndex) : typeHandler.getResult(rs, column);
+    }
+  }
+
+  private static class ConstructorAutoMapping {
+    private final Class<?>[] parameterTypes;
+    private final String[] columns;
+    private final int[] columnIndexes;
+    private final TypeHandler<?>[] typeHandlers;
+    private final Constructor<?> directConstructor;
+
+    ConstructorAutoMapping(Class<?>[] parameterTypes, String[] columns, int[] columnIndexes, TypeHandler<?>[] typeHandlers,
+        Constructor<?> directConstructor) {
+      this.parameterTypes = parameterTypes;
+      this.columns = columns;
+      this.columnIndexes = columnIndexes;
+      this.typeHandlers = typeHandlers;
+      this.directConstructor = directConstructor;
+    }
+
+    Object getValue(ResultSet rs, int i) throws SQLException {
+      return columnIndexes[i] > 0 ? typeHandlers[i].getResult(rs, columnIndexes[i]) : typeHandlers[i].getResult(rs, columns[i]);
+    }
+  }
+
   private static class UnMappedColumnAutoMapping {
     private final String column;
     private final String property;
@@ -248,7 +319,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+    resultSetIndex = 0;
+    return rs != null ? wrapResultSet(rs) : null;
   }
 
   private ResultSetWrapper getNextResultSet(Statement stmt) {
@@ -261,7 +333,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           if (rs == null) {
             return getNextResultSet(stmt);
           } else {
-            return new ResultSetWrapper(rs, configuration);
+            return wrapResultSet(rs);
           }
         }
       }
@@ -271,6 +343,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return null;
   }
 
+  private ResultSetWrapper wrapResultSet(ResultSet rs) throws SQLException {
+    final ResultSetMetadataCache metadataCache = configuration.getResultSetMetadataCache();
+    final int index = resultSetIndex++;
+    if (metadataCache == null || boundSql == null) {
+      return new ResultSetWrapper(rs, configuration);
+    }
+    final List<Object> key = Arrays.asList(mappedStatement.getId(), boundSql.getSql(), index);
+    final ResultSetMetaData metaData = rs.getMetaData();
+    ColumnMetadata metadata = metadataCache.get(key, metaData, configuration.isUseColumnLabel());
+    if (metadata == null) {
+      metadata = ColumnMetadata.read(metaData, configuration.isUseColumnLabel());
+      metadataCache.put(key, metadata);
+    }
+    return new ResultSetWrapper(rs, configuration, metadata);
+  }
+
   private void closeResultSet(ResultSet rs) {
     try {
       if (rs != null) {
@@ -400,13 +488,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     // 懒加载的触发位置，创建blog的代理类
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-      final MetaObject metaObject = configuration.newMetaObject(rowValue);
       boolean foundValues = this.useConstructorMappings;
-      if (shouldApplyAutomaticMappings(resultMap, false)) {
-        foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+      final ResultMappingPlan plan = getMappingPlan(rsw, resultMap, rowValue, columnPrefix);
+      if (plan != null) {
+        foundValues = applyMappingPlan(rsw, plan, rowValue, lazyLoader, columnPrefix) || foundValues;
+      } else {
+        final MetaObject metaObject = configuration.newMetaObject(rowValue);
+        if (shouldApplyAutomaticMappings(resultMap, false)) {
+          foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+        }
+        // 为lazyLoader设置属性，rowValue为代理类（Blog），lazyLoader为rowValue的ResultLoaderMap
+        foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
       }
-      // 为lazyLoader设置属性，rowValue为代理类（Blog），lazyLoader为rowValue的ResultLoaderMap
-      foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
       foundValues = lazyLoader.size() > 0 || foundValues;
       rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
     }
@@ -576,6 +669,148 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
+  //
+  // MAPPING PLANS
+  //
+
+  private ResultMappingPlan getMappingPlan(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue, String columnPrefix)
+      throws SQLException {
+    final ResultMappingPlanCache planCache = configuration.getResultMappingPlanCache();
+    if (planCache == null || !configuration.isUseColumnLabel() || rowValue instanceof Map
+        || rowValue instanceof Collection || rowValue instanceof ObjectWrapper
+        || configuration.getObjectWrapperFactory().hasWrapperFor(rowValue)) {
+      return null;
+    }
+    if (mappingPlansResultSet != rsw) {
+      mappingPlans.clear();
+      mappingPlansResultSet = rsw;
+      lastPlan = null;
+    }
+    ResultMappingPlan plan = lastPlan;
+    if (plan == null || lastPlanResultMap != resultMap || !Objects.equals(lastPlanColumnPrefix, columnPrefix)) {
+      plan = mappingPlans.get(resultMap.getId() + ":" + columnPrefix);
+      lastPlanResultMap = resultMap;
+      lastPlanColumnPrefix = columnPrefix;
+    }
+    if (plan == null || plan.getType() != rowValue.getClass()) {
+      plan = getMappingPlan(planCache, rsw, resultMap, rowValue, columnPrefix);
+      mappingPlans.put(resultMap.getId() + ":" + columnPrefix, plan);
+    }
+    lastPlan = plan;
+    return plan;
+  }
+
+  private ResultMappingPlan getMappingPlan(ResultMappingPlanCache planCache, ResultSetWrapper rsw, ResultMap resultMap,
+      Object rowValue, String columnPrefix) throws SQLException {
+    final List<Object> key = Arrays.asList(resultMap.getId(), columnPrefix, rowValue.getClass(), rsw.getColumnNames(),
+        rsw.getJdbcTypes(), rsw.getClassNames());
+    ResultMappingPlan plan = planCache.get(key);
+    if (plan == null) {
+      plan = createMappingPlan(rsw, resultMap, rowValue, columnPrefix);
+      planCache.put(key, plan);
+    }
+    return plan;
+  }
+
+  private ResultMappingPlan createMappingPlan(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue, String columnPrefix)
+      throws SQLException {
+    final ResultMappingPlan plan = new ResultMappingPlan(rowValue.getClass(), reflectorFactory.findForClass(rowValue.getClass()));
+    final List<String> columnNames = rsw.getColumnNames();
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      final MetaObject metaObject = configuration.newMetaObject(rowValue);
+      for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix)) {
+        plan.addColumn(indexOfColumn(columnNames, mapping.column), mapping.typeHandler, mapping.property, mapping.primitive);
+      }
+    }
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+      if (propertyMapping.getNestedResultMapId() != null) {
+        // the user added a column attribute to a nested result map, ignore it
+        column = null;
+      }
+      boolean mapped = column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH));
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null
+          || (mapped && propertyMapping.getNestedQueryId() != null)) {
+        plan.addResultMapping(propertyMapping);
+      } else if (mapped && propertyMapping.getProperty() != null) {
+        plan.addColumn(indexOfColumn(columnNames, column), propertyMapping.getTypeHandler(), propertyMapping.getProperty(), null);
+      }
+    }
+    return plan;
+  }
+
+  private int indexOfColumn(List<String> columnNames, String column) {
+    // the first match, like ResultSet#findColumn
+    for (int i = 0; i < columnNames.size(); i++) {
+      if (columnNames.get(i).equalsIgnoreCase(column)) {
+        return i + 1;
+      }
+    }
+    throw new ExecutorException("Column '" + column + "' was not found in the result set.");
+  }
+
+  private boolean applyMappingPlan(ResultSetWrapper rsw, ResultMappingPlan plan, Object rowValue, ResultLoaderMap lazyLoader,
+      String columnPrefix) throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
+    MetaObject metaObject = null;
+    boolean foundValues = false;
+    for (ResultMappingPlan.Step step : plan.getSteps()) {
+      final Object value;
+      if (step.resultMapping != null) {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(rowValue);
+        }
+        value = getPropertyMappingValue(rs, metaObject, step.resultMapping, lazyLoader, columnPrefix);
+        // issue #541 make property optional
+        if (step.property == null) {
+          continue;
+        } else if (value == DEFERRED) {
+          foundValues = true;
+          continue;
+        }
+      } else {
+        value = step.typeHandler.getResult(rs, step.columnIndex);
+      }
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || (configuration.isCallSettersOnNulls() && !isPrimitiveProperty(step, metaObject, rowValue))) {
+        // gcode issue #377, call setter on nulls (value is not 'found')
+        if (step.setter != null) {
+          setProperty(step, rowValue, value);
+        } else {
+          if (metaObject == null) {
+            metaObject = configuration.newMetaObject(rowValue);
+          }
+          metaObject.setValue(step.property, value);
+        }
+      }
+    }
+    return foundValues;
+  }
+
+  private boolean isPrimitiveProperty(ResultMappingPlan.Step step, MetaObject metaObject, Object rowValue) {
+    if (step.primitive != null) {
+      return step.primitive;
+    }
+    return (metaObject != null ? metaObject : configuration.newMetaObject(rowValue)).getSetterType(step.property).isPrimitive();
+  }
+
+  private void setProperty(ResultMappingPlan.Step step, Object rowValue, Object value) {
+    // same error as BeanWrapper
+    try {
+      try {
+        step.setter.invoke(rowValue, new Object[] { value });
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    } catch (Throwable t) {
+      throw new ReflectionException("Could not set property '" + step.property + "' of '" + rowValue.getClass()
+          + "' with value '" + value + "' Cause: " + t.toString(), t);
+    }
+  }
+
   // MULTIPLE RESULT SETS
 
   private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
@@ -657,13 +892,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private Object createResultObject(ResultSetWrapper rsw, ResultMap resultMap, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix)
       throws SQLException {
     final Class<?> resultType = resultMap.getType();
-    final MetaClass metaType = MetaClass.forClass(resultType, reflectorFactory);
     final List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
     if (hasTypeHandlerForResultObject(rsw, resultType)) {
       return createPrimitiveResultObject(rsw, resultMap, columnPrefix);
     } else if (!constructorMappings.isEmpty()) {
       return createParameterizedResultObject(rsw, resultType, constructorMappings, constructorArgTypes, constructorArgs, columnPrefix);
-    } else if (resultType.isInterface() || metaType.hasDefaultConstructor()) {
+    } else if (resultType.isInterface() || reflectorFactory.findForClass(resultType).hasDefaultConstructor()) {
       return objectFactory.create(resultType);
     } else if (shouldApplyAutomaticMappings(resultMap, false)) {
       return createByConstructorSignature(rsw, resultType, constructorArgTypes, constructorArgs);
@@ -695,36 +929,104 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
     }
-    return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
+    if (!foundValues) {
+      return null;
+    }
+    Constructor<?> constructor = mappedConstructors.get(constructorMappings);
+    if (constructor == null && !mappedConstructors.containsKey(constructorMappings)) {
+      constructor = findDirectConstructor(resultType, constructorArgTypes.toArray(new Class[0]));
+      mappedConstructors.put(constructorMappings, constructor);
+    }
+    return instantiate(constructor, resultType, constructorArgTypes, constructorArgs);
   }
 
   private Object createByConstructorSignature(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) throws SQLException {
+    if (constructorAutoMappingsResultSet != rsw) {
+      constructorAutoMappings.clear();
+      constructorAutoMappingsResultSet = rsw;
+    }
+    ConstructorAutoMapping mapping = constructorAutoMappings.get(resultType);
+    if (mapping == null) {
+      mapping = createConstructorAutoMapping(rsw, resultType);
+      constructorAutoMappings.put(resultType, mapping);
+    }
+    return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, mapping);
+  }
+
+  private ConstructorAutoMapping createConstructorAutoMapping(ResultSetWrapper rsw, Class<?> resultType) throws SQLException {
     final Constructor<?>[] constructors = resultType.getDeclaredConstructors();
-    final Constructor<?> defaultConstructor = findDefaultConstructor(constructors);
-    if (defaultConstructor != null) {
-      return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, defaultConstructor);
-    } else {
-      for (Constructor<?> constructor : constructors) {
-        if (allowedConstructorUsingTypeHandlers(constructor, rsw.getJdbcTypes())) {
-          return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, constructor);
+    Constructor<?> constructor = findDefaultConstructor(constructors);
+    if (constructor == null) {
+      for (Constructor<?> candidate : constructors) {
+        if (allowedConstructorUsingTypeHandlers(candidate, rsw.getJdbcTypes())) {
+          constructor = candidate;
+          break;
         }
       }
     }
-    throw new ExecutorException("No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames());
+    if (constructor == null) {
+      throw new ExecutorException("No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames());
+    }
+    final Class<?>[] parameterTypes = constructor.getParameterTypes();
+    final List<String> columnNames = rsw.getColumnNames();
+    final String[] columns = new String[parameterTypes.length];
+    final int[] columnIndexes = new int[parameterTypes.length];
+    final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      columns[i] = columnNames.get(i);
+      columnIndexes[i] = configuration.isUseColumnLabel() ? indexOfColumn(columnNames, columns[i]) : 0;
+      typeHandlers[i] = rsw.getTypeHandler(parameterTypes[i], columns[i]);
+    }
+    return new ConstructorAutoMapping(parameterTypes, columns, columnIndexes, typeHandlers,
+        findDirectConstructor(resultType, parameterTypes));
   }
 
-  private Object createUsingConstructor(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, Constructor<?> constructor) throws SQLException {
+  private Object createUsingConstructor(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, ConstructorAutoMapping mapping) throws SQLException {
     boolean foundValues = false;
-    for (int i = 0; i < constructor.getParameterTypes().length; i++) {
-      Class<?> parameterType = constructor.getParameterTypes()[i];
-      String columnName = rsw.getColumnNames().get(i);
-      TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
-      constructorArgTypes.add(parameterType);
+    final ResultSet rs = rsw.getResultSet();
+    for (int i = 0; i < mapping.parameterTypes.length; i++) {
+      Object value = mapping.getValue(rs, i);
+      constructorArgTypes.add(mapping.parameterTypes[i]);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
     }
-    return foundValues ? objectFactory.create(resultType, constructorArgTypes, constructorArgs) : null;
+    return foundValues ? instantiate(mapping.directConstructor, resultType, constructorArgTypes, constructorArgs) : null;
+  }
+
+  /**
+   * Returns the constructor to invoke directly instead of looking it up through the object factory for each row, or
+   * null when a custom object factory is configured or the constructor cannot be used.
+   */
+  private Constructor<?> findDirectConstructor(Class<?> resultType, Class<?>[] parameterTypes) {
+    if (objectFactory.getClass() != DefaultObjectFactory.class || resultType == null) {
+      return null;
+    }
+    try {
+      final Constructor<?> constructor = resultType.getDeclaredConstructor(parameterTypes);
+      if (!Modifier.isPublic(constructor.getModifiers()) || !Modifier.isPublic(resultType.getModifiers())) {
+        if (!Reflector.canControlMemberAccessible()) {
+          return null;
+        }
+        constructor.setAccessible(true);
+      }
+      return constructor;
+    } catch (Exception e) {
+      // the object factory reports the problem
+      return null;
+    }
+  }
+
+  private Object instantiate(Constructor<?> constructor, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+    if (constructor == null) {
+      return objectFactory.create(resultType, constructorArgTypes, constructorArgs);
+    }
+    try {
+      return constructor.newInstance(constructorArgs.toArray());
+    } catch (Exception e) {
+      String argTypes = constructorArgTypes.stream().map(Class::getSimpleName).collect(Collectors.joining(","));
+      String argValues = constructorArgs.stream().map(String::valueOf).collect(Collectors.joining(","));
+      throw new ReflectionException("Error instantiating " + resultType + " with invalid types (" + argTypes + ") or values (" + argValues + "). Cause: " + e, e);
+    }
   }
 
   private Constructor<?> findDefaultConstructor(final Constructor<?>[] constructors) {
@@ -929,8 +1231,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
-      Object partialObject = nestedResultObjects.get(rowKey);
+      final CacheKey probe = createRowKey(discriminatedResultMap, rsw, null, null);
+      final int index = probe == CacheKey.NULL_CACHE_KEY ? -1 : nestedResultObjects.indexOf(probe);
+      final CacheKey rowKey = index < 0 ? copyRowKey(probe) : nestedResultObjects.keyAt(index);
+      Object partialObject = index < 0 ? null : nestedResultObjects.valueAt(index);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
         if (partialObject == null && rowValue != null) {
@@ -947,6 +1251,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
     if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
+      // the last main row, a cursor does not clean up after the result set
+      nestedResultObjects.clear();
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
       previousRowValue = null;
     } else if (rowValue != null) {
@@ -977,9 +1283,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
-          Object rowValue = nestedResultObjects.get(combinedKey);
+          final CacheKey probe = createRowKey(nestedResultMap, rsw, columnPrefix, parentRowKey);
+          final int index = probe == CacheKey.NULL_CACHE_KEY ? -1 : nestedResultObjects.indexOf(probe);
+          final CacheKey combinedKey = index < 0 ? copyRowKey(probe) : nestedResultObjects.keyAt(index);
+          Object rowValue = index < 0 ? null : nestedResultObjects.valueAt(index);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
           if (anyNotNullColumnHasValue(resultMapping, columnPrefix, rsw)) {
@@ -1039,8 +1346,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
+  /**
+   * Builds the row key in the reused probe, which is only valid until the next call. The key of a nested result map is
+   * combined with the key of its parent row, and is the null key when either of them has no values.
+   */
+  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix, CacheKey parentRowKey) throws SQLException {
+    if (parentRowKey != null && parentRowKey.getUpdateCount() < 2) {
+      return CacheKey.NULL_CACHE_KEY;
+    }
+    final CacheKey cacheKey = rowKeyProbe;
+    cacheKey.reset();
     cacheKey.update(resultMap.getId());
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.isEmpty()) {
@@ -1055,21 +1370,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (cacheKey.getUpdateCount() < 2) {
       return CacheKey.NULL_CACHE_KEY;
     }
+    if (parentRowKey != null) {
+      cacheKey.update(parentRowKey);
+    }
     return cacheKey;
   }
 
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
+  private CacheKey copyRowKey(CacheKey probe) {
+    if (probe == CacheKey.NULL_CACHE_KEY) {
+      return probe;
+    }
+    try {
+      return probe.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
     }
-    return CacheKey.NULL_CACHE_KEY;
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1081,21 +1396,39 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
-    for (ResultMapping resultMapping : resultMappings) {
-      if (resultMapping.isSimple()) {
-        final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-        final TypeHandler<?> th = resultMapping.getTypeHandler();
-        List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
-        // Issue #114
-        if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
-          if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
+    final ResultSet rs = rsw.getResultSet();
+    for (RowKeyColumn rowKeyColumn : getRowKeyColumns(resultMap, rsw, resultMappings, columnPrefix)) {
+      final Object value = rowKeyColumn.getValue(rs);
+      if (value != null || configuration.isReturnInstanceForEmptyRow()) {
+        cacheKey.update(rowKeyColumn.column);
+        cacheKey.update(value);
+      }
+    }
+  }
+
+  private List<RowKeyColumn> getRowKeyColumns(ResultMap resultMap, ResultSetWrapper rsw, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    if (rowKeyColumnsResultSet != rsw) {
+      rowKeyColumns.clear();
+      rowKeyColumnsResultSet = rsw;
+    }
+    final Map<String, List<RowKeyColumn>> columnsByPrefix = rowKeyColumns.computeIfAbsent(resultMap, k -> new HashMap<>());
+    List<RowKeyColumn> columns = columnsByPrefix.get(columnPrefix);
+    if (columns == null) {
+      columns = new ArrayList<>();
+      final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+      for (ResultMapping resultMapping : resultMappings) {
+        if (resultMapping.isSimple()) {
+          final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
+          // Issue #114
+          if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+            final int columnIndex = configuration.isUseColumnLabel() ? indexOfColumn(rsw.getColumnNames(), column) : 0;
+            columns.add(new RowKeyColumn(column, columnIndex, resultMapping.getTypeHandler()));
           }
         }
       }
+      columnsByPrefix.put(columnPrefix, columns);
     }
+    return columns;
   }
 
   private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * The automatic and property mappings of a simple result map for one column layout and result object type, in the
+ * order they are applied. Plain column mappings are read by column index and, for simple property names, set through
+ * the setter invoker; other mappings (nested queries, multiple result sets, composite columns) keep their
+ * {@link ResultMapping} and are applied as before.
+ *
+ * @since 3.5.7
+ */
+final class ResultMappingPlan {
+
+  private final Class<?> type;
+  private final Reflector reflector;
+  private final List<Step> steps = new ArrayList<>();
+
+  ResultMappingPlan(Class<?> type, Reflector reflector) {
+    this.type = type;
+    this.reflector = reflector;
+  }
+
+  Class<?> getType() {
+    return type;
+  }
+
+  List<Step> getSteps() {
+    return steps;
+  }
+
+  void addColumn(int columnIndex, TypeHandler<?> typeHandler, String property, Boolean primitive) {
+    Invoker setter = null;
+    if (property.indexOf('.') < 0 && property.indexOf('[') < 0 && reflector.hasSetter(property)) {
+      setter = reflector.getSetInvoker(property);
+      if (primitive == null) {
+        primitive = reflector.getSetterType(property).isPrimitive();
+      }
+    }
+    steps.add(new Step(columnIndex, typeHandler, property, setter, primitive, null));
+  }
+
+  void addResultMapping(ResultMapping resultMapping) {
+    steps.add(new Step(0, null, resultMapping.getProperty(), null, null, resultMapping));
+  }
+
+  static final class Step {
+
+    final int columnIndex;
+    final TypeHandler<?> typeHandler;
+    final String property;
+    /**
+     * The setter of a simple property, or <code>null</code> to set the value through the <code>MetaObject</code>.
+     */
+    final Invoker setter;
+    /**
+     * Whether the property is primitive, or <code>null</code> if it has to be asked to the <code>MetaObject</code>.
+     */
+    final Boolean primitive;
+    /**
+     * The mapping of a step that is not a plain column mapping.
+     */
+    final ResultMapping resultMapping;
+
+    Step(int columnIndex, TypeHandler<?> typeHandler, String property, Invoker setter, Boolean primitive,
+        ResultMapping resultMapping) {
+      this.columnIndex = columnIndex;
+      this.typeHandler = typeHandler;
+      this.property = property;
+      this.setter = setter;
+      this.primitive = primitive;
+      this.resultMapping = resultMapping;
+    }
+  }
+
+}
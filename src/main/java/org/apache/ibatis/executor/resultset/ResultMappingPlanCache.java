@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches how the columns of a result set are mapped to the properties of a result object, by result map, column
+ * prefix, result object type and column layout (labels, JDBC types and class names). Once the cache holds
+ * <code>maxSize</code> plans, plans for new layouts are built but no longer stored.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#getResultMappingPlanCache()
+ */
+public class ResultMappingPlanCache {
+
+  private final int maxSize;
+  private final Map<List<Object>, ResultMappingPlan> plans = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public ResultMappingPlanCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  ResultMappingPlan get(List<Object> key) {
+    ResultMappingPlan plan = plans.get(key);
+    if (plan == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return plan;
+  }
+
+  void put(List<Object> key, ResultMappingPlan plan) {
+    if (plans.size() < maxSize) {
+      plans.putIfAbsent(key, plan);
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getSize() {
+    return plans.size();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public void clear() {
+    plans.clear();
+  }
+
+}
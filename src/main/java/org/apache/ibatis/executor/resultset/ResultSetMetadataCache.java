@@ -0,0 +1,82 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.executor.resultset.ResultSetWrapper.ColumnMetadata;
+
+/**
+ * Caches the column metadata of result sets by statement id, SQL and result set index, so that the next execution
+ * only compares the column names instead of reading all the metadata and resolving type handlers again. Once the
+ * cache holds <code>maxSize</code> entries, the metadata of new statements is no longer stored.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#getResultSetMetadataCache()
+ */
+public class ResultSetMetadataCache {
+
+  private final int maxSize;
+  private final Map<List<Object>, ColumnMetadata> entries = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public ResultSetMetadataCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  ColumnMetadata get(List<Object> key, ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+    ColumnMetadata metadata = entries.get(key);
+    if (metadata == null || !metadata.matches(metaData, useColumnLabel)) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return metadata;
+  }
+
+  void put(List<Object> key, ColumnMetadata metadata) {
+    if (entries.size() < maxSize || entries.containsKey(key)) {
+      entries.put(key, metadata);
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getSize() {
+    return entries.size();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+}
@@ -20,12 +20,12 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
@@ -43,24 +43,27 @@ public class ResultSetWrapper {
 
   private final ResultSet resultSet;
   private final TypeHandlerRegistry typeHandlerRegistry;
-  private final List<String> columnNames = new ArrayList<>();
-  private final List<String> classNames = new ArrayList<>();
-  private final List<JdbcType> jdbcTypes = new ArrayList<>();
-  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
-  private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
-  private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private final List<String> columnNames;
+  private final List<String> classNames;
+  private final List<JdbcType> jdbcTypes;
+  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap;
+  private final Map<String, List<String>> mappedColumnNamesMap;
+  private final Map<String, List<String>> unMappedColumnNamesMap;
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
+    this(rs, configuration, ColumnMetadata.read(rs.getMetaData(), configuration.isUseColumnLabel()));
+  }
+
+  ResultSetWrapper(ResultSet rs, Configuration configuration, ColumnMetadata metadata) {
     super();
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.resultSet = rs;
-    final ResultSetMetaData metaData = rs.getMetaData();
-    final int columnCount = metaData.getColumnCount();
-    for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
-      classNames.add(metaData.getColumnClassName(i));
-    }
+    this.columnNames = metadata.columnNames;
+    this.classNames = metadata.classNames;
+    this.jdbcTypes = metadata.jdbcTypes;
+    this.typeHandlerMap = metadata.typeHandlerMap;
+    this.mappedColumnNamesMap = metadata.mappedColumnNamesMap;
+    this.unMappedColumnNamesMap = metadata.unMappedColumnNamesMap;
   }
 
   public ResultSet getResultSet() {
@@ -103,8 +106,7 @@ public class ResultSetWrapper {
     TypeHandler<?> handler = null;
     Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
     if (columnHandlers == null) {
-      columnHandlers = new HashMap<>();
-      typeHandlerMap.put(columnName, columnHandlers);
+      columnHandlers = typeHandlerMap.computeIfAbsent(columnName, k -> new ConcurrentHashMap<>());
     } else {
       handler = columnHandlers.get(propertyType);
     }
@@ -194,4 +196,46 @@ public class ResultSetWrapper {
     return prefixed;
   }
 
+  /**
+   * The columns of a result set and what has been resolved for them. It is thread safe, so that the wrappers of the
+   * result sets of a statement can share it through a {@link ResultSetMetadataCache}.
+   */
+  static final class ColumnMetadata {
+
+    private final List<String> columnNames = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
+    private final List<JdbcType> jdbcTypes = new ArrayList<>();
+    private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> mappedColumnNamesMap = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> unMappedColumnNamesMap = new ConcurrentHashMap<>();
+
+    static ColumnMetadata read(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+      final ColumnMetadata metadata = new ColumnMetadata();
+      final int columnCount = metaData.getColumnCount();
+      for (int i = 1; i <= columnCount; i++) {
+        metadata.columnNames.add(useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
+        metadata.jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
+        metadata.classNames.add(metaData.getColumnClassName(i));
+      }
+      return metadata;
+    }
+
+    /**
+     * Checks the column count and names only, which is enough to tell the result sets of one statement apart.
+     */
+    boolean matches(ResultSetMetaData metaData, boolean useColumnLabel) throws SQLException {
+      final int columnCount = metaData.getColumnCount();
+      if (columnCount != columnNames.size()) {
+        return false;
+      }
+      for (int i = 1; i <= columnCount; i++) {
+        String columnName = useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i);
+        if (!columnNames.get(i - 1).equals(columnName)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
 }
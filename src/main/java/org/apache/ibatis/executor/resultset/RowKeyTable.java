@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.cache.CacheKey;
+
+/**
+ * The objects of nested result maps, by row key. Keys and values are kept in two open addressing arrays, so storing an
+ * object allocates nothing but the key, and a lookup returns a slot from which both the stored key and its object can
+ * be read.
+ *
+ * @since 3.5.7
+ */
+final class RowKeyTable {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private CacheKey[] keys = new CacheKey[INITIAL_CAPACITY];
+  private Object[] values = new Object[INITIAL_CAPACITY];
+  private int size;
+
+  /**
+   * Returns the slot of the given key, or -1 when there is none.
+   */
+  int indexOf(CacheKey key) {
+    final int mask = keys.length - 1;
+    for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+      final CacheKey candidate = keys[i];
+      if (candidate == null) {
+        return -1;
+      }
+      if (candidate.equals(key)) {
+        return i;
+      }
+    }
+  }
+
+  CacheKey keyAt(int index) {
+    return keys[index];
+  }
+
+  Object valueAt(int index) {
+    return values[index];
+  }
+
+  Object get(CacheKey key) {
+    final int index = indexOf(key);
+    return index < 0 ? null : values[index];
+  }
+
+  void put(CacheKey key, Object value) {
+    final int mask = keys.length - 1;
+    int i = slot(key, mask);
+    for (CacheKey candidate = keys[i]; candidate != null; candidate = keys[i]) {
+      if (candidate.equals(key)) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    if (++size > keys.length >> 1) {
+      resize();
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Removes all the entries. A table that grew far beyond its last content is replaced by a smaller one, so that the
+   * objects of ordered results, cleared for each main row, keep neither the memory nor the clearing cost of the largest
+   * group of rows seen so far.
+   */
+  void clear() {
+    if (size == 0) {
+      return;
+    }
+    if (keys.length > INITIAL_CAPACITY && size < keys.length >> 3) {
+      final int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(size) << 2);
+      keys = new CacheKey[capacity];
+      values = new Object[capacity];
+    } else {
+      Arrays.fill(keys, null);
+      Arrays.fill(values, null);
+    }
+    size = 0;
+  }
+
+  private void resize() {
+    final CacheKey[] oldKeys = keys;
+    final Object[] oldValues = values;
+    keys = new CacheKey[oldKeys.length << 1];
+    values = new Object[oldKeys.length << 1];
+    final int mask = keys.length - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      final CacheKey key = oldKeys[j];
+      if (key != null) {
+        int i = slot(key, mask);
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private static int slot(CacheKey key, int mask) {
+    final int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+}
@@ -0,0 +1,261 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Shares the classpath listings of the package scans made while a configuration is built.
+ * <p>
+ * While an index is open on the current thread, {@link ResolverUtil#find(ResolverUtil.Test, String)} lists a package
+ * through it. Each package is listed by the {@link VFS} at most once, and a package inside one that was already listed
+ * is taken from that listing, so the <code>&lt;package&gt;</code> elements of <code>&lt;typeAliases&gt;</code>,
+ * <code>&lt;typeHandlers&gt;</code> and <code>&lt;mappers&gt;</code> do not list the same package twice. Packages that
+ * are not inside one another are listed separately, and each of their listings walks the classpath roots that contain
+ * them.
+ * <p>
+ * An index can also read the {@value #INDEX_RESOURCE} files on the classpath. They are written at build time, for
+ * example with {@link #main(String[])}, and list the classes of some packages. The classpath root of an index file,
+ * the directory or jar it is packaged in, is not walked for those packages and their sub-packages, their classes are
+ * taken from the index file instead. Other roots that contain the same packages, such as jars without an index file
+ * contributing classes to a split package, are still walked. An index file must be written again when the classes of
+ * its packages change.
+ * <p>
+ * An XML configuration opens an index while it is parsed, reading the index files when its
+ * <code>usePackageScanIndex</code> setting is enabled. Code that builds a configuration itself can make its package
+ * scans inside <code>try (PackageScanIndex index = PackageScanIndex.open(true))</code>.
+ *
+ * @since 3.5.7
+ */
+public class PackageScanIndex implements Closeable {
+
+  /**
+   * The classpath resource of the index files.
+   */
+  public static final String INDEX_RESOURCE = "META-INF/mybatis/package-scan.idx";
+
+  private static final Log log = LogFactory.getLog(PackageScanIndex.class);
+
+  private static final ThreadLocal<PackageScanIndex> current = new ThreadLocal<>();
+
+  private final PackageScanIndex previous;
+  private final Map<String, IndexedPackage> indexedPackages;
+  private final Map<String, List<String>> listings = new HashMap<>();
+
+  private PackageScanIndex(PackageScanIndex previous, Map<String, IndexedPackage> indexedPackages) {
+    this.previous = previous;
+    this.indexedPackages = indexedPackages;
+  }
+
+  /**
+   * Opens an index on the current thread. It is used by the package scans of this thread until it is closed.
+   *
+   * @param useIndexFiles
+   *          true to read the {@value #INDEX_RESOURCE} files of the context class loader
+   * @return the index
+   * @throws IOException
+   *           if an index file cannot be read
+   */
+  public static PackageScanIndex open(boolean useIndexFiles) throws IOException {
+    final Map<String, IndexedPackage> indexedPackages = useIndexFiles
+        ? readIndexFiles(Thread.currentThread().getContextClassLoader())
+        : Collections.emptyMap();
+    final PackageScanIndex index = new PackageScanIndex(current.get(), indexedPackages);
+    current.set(index);
+    return index;
+  }
+
+  /**
+   * Returns the index opened on the current thread.
+   *
+   * @return the index, or <code>null</code> when none is open
+   */
+  public static PackageScanIndex current() {
+    return current.get();
+  }
+
+  /**
+   * Lists the resources of a package and its sub-packages, as {@link VFS#list(String)} does.
+   *
+   * @param path
+   *          the path of the package
+   * @return the resources, with their full path
+   * @throws IOException
+   *           if the package cannot be listed
+   */
+  public List<String> list(String path) throws IOException {
+    List<String> children = listings.get(path);
+    if (children != null) {
+      return children;
+    }
+    for (Map.Entry<String, IndexedPackage> entry : indexedPackages.entrySet()) {
+      if (contains(entry.getKey(), path)) {
+        children = listIndexedPackage(entry.getValue(), path);
+        listings.put(path, children);
+        return children;
+      }
+    }
+    for (Map.Entry<String, List<String>> entry : listings.entrySet()) {
+      if (!entry.getKey().isEmpty() && contains(entry.getKey(), path)) {
+        children = filter(entry.getValue(), path);
+        listings.put(path, children);
+        return children;
+      }
+    }
+    children = VFS.getInstance().list(path);
+    listings.put(path, children);
+    return children;
+  }
+
+  /**
+   * Lists a package inside an indexed one from the index files, and from the classpath roots without an index file for
+   * it.
+   */
+  private List<String> listIndexedPackage(IndexedPackage indexedPackage, String path) throws IOException {
+    final List<String> children = filter(indexedPackage.classes, path);
+    final VFS vfs = VFS.getInstance();
+    for (URL url : VFS.getResources(path)) {
+      if (!indexedPackage.roots.contains(getRoot(url, path))) {
+        if (log.isDebugEnabled()) {
+          log.debug("Listing " + url + " that is not in a package scan index");
+        }
+        children.addAll(vfs.list(url, path));
+      }
+    }
+    return children;
+  }
+
+  /**
+   * Closes this index. The index that was open on the current thread before it becomes current again.
+   */
+  @Override
+  public void close() {
+    if (previous == null) {
+      current.remove();
+    } else {
+      current.set(previous);
+    }
+  }
+
+  /**
+   * Writes an index file of the classes of some packages, to be packaged as the {@value #INDEX_RESOURCE} resource.
+   *
+   * @param args
+   *          the index file, followed by the names of the packages
+   * @throws IOException
+   *           if a package cannot be listed or the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      throw new IllegalArgumentException("Usage: PackageScanIndex <index file> <package name>...");
+    }
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(args[0]), StandardCharsets.UTF_8)) {
+      for (int i = 1; i < args.length; i++) {
+        final String path = args[i].replace('.', '/');
+        writer.write(path + "/\n");
+        for (String child : VFS.getInstance().list(path)) {
+          if (child.endsWith(".class")) {
+            writer.write(child + "\n");
+          }
+        }
+      }
+    }
+  }
+
+  private static Map<String, IndexedPackage> readIndexFiles(ClassLoader classLoader) throws IOException {
+    final Map<String, IndexedPackage> indexedPackages = new HashMap<>();
+    final Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE);
+    while (urls.hasMoreElements()) {
+      final URL url = urls.nextElement();
+      if (log.isDebugEnabled()) {
+        log.debug("Reading package scan index " + url);
+      }
+      final String root = getRoot(url, INDEX_RESOURCE);
+      try (InputStream inputStream = url.openStream();
+          BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+        IndexedPackage indexedPackage = null;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+          line = line.trim();
+          if (line.isEmpty() || line.startsWith("#")) {
+            continue;
+          }
+          if (line.endsWith("/")) {
+            indexedPackage = indexedPackages.computeIfAbsent(line.substring(0, line.length() - 1), k -> new IndexedPackage());
+            indexedPackage.roots.add(root);
+          } else if (indexedPackage == null) {
+            throw new IOException("The package scan index " + url + " lists " + line + " before any package.");
+          } else {
+            indexedPackage.classes.add(line);
+          }
+        }
+      }
+    }
+    return indexedPackages;
+  }
+
+  /**
+   * Returns the classpath root of a resource, the url of the directory or jar that contains it.
+   */
+  private static String getRoot(URL url, String path) {
+    String root = url.toExternalForm();
+    if (root.endsWith("/")) {
+      root = root.substring(0, root.length() - 1);
+    }
+    return root.endsWith(path) ? root.substring(0, root.length() - path.length()) : root;
+  }
+
+  private static boolean contains(String packagePath, String path) {
+    return path.equals(packagePath) || path.startsWith(packagePath + "/");
+  }
+
+  private static List<String> filter(List<String> resources, String path) {
+    final String prefix = path + "/";
+    final List<String> children = new ArrayList<>();
+    for (String resource : resources) {
+      if (resource.startsWith(prefix)) {
+        children.add(resource);
+      }
+    }
+    return children;
+  }
+
+  private static class IndexedPackage {
+
+    private final List<String> classes = new ArrayList<>();
+    private final Set<String> roots = new HashSet<>();
+  }
+
+}
@@ -43,6 +43,8 @@ import org.apache.ibatis.logging.LogFactory;
  * use cases of scanning multiple packages for extensions of particular classes, or classes
  * annotated with a specific annotation.</p>
  *
+ * <p>While a {@link PackageScanIndex} is open on the current thread, the packages are listed through it.</p>
+ *
  * <p>The standard usage pattern for the ResolverUtil class is as follows:</p>
  *
  * <pre>
@@ -246,7 +248,8 @@ public class ResolverUtil<T> {
     String path = getPackagePath(packageName);
 
     try {
-      List<String> children = VFS.getInstance().list(path);
+      PackageScanIndex index = PackageScanIndex.current();
+      List<String> children = index != null ? index.list(path) : VFS.getInstance().list(path);
       for (String child : children) {
         if (child.endsWith(".class")) {
           addIfMatching(test, child);
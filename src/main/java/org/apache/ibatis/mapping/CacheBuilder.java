@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -24,12 +24,15 @@ import java.util.Properties;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.cache.decorators.BlockingCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.ConcurrentLruCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -46,6 +49,7 @@ public class CacheBuilder {
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private CacheSerializer serializer;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -84,6 +88,19 @@ public class CacheBuilder {
     return this;
   }
 
+  /**
+   * Sets the serializer used when the cache is read-write.
+   *
+   * @param serializer
+   *          the serializer, Java serialization when null
+   * @return this builder
+   * @since 3.5.7
+   */
+  public CacheBuilder serializer(CacheSerializer serializer) {
+    this.serializer = serializer;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -99,7 +116,13 @@ public class CacheBuilder {
         cache = newCacheDecoratorInstance(decorator, cache);
         setCacheProperties(cache);
       }
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, true, readWrite);
+    } else if (ConcurrentLruCache.class.equals(cache.getClass())) {
+      // evicts by itself and is thread-safe, so neither eviction decorators nor synchronization are needed
+      cache = setStandardDecorators(cache, false, readWrite);
+    } else if (OffHeapCache.class.equals(cache.getClass())) {
+      // same as above, but it only stores serialized values even when the cache is read-only
+      cache = setStandardDecorators(cache, false, true);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       cache = new LoggingCache(cache);
     }
@@ -115,7 +138,7 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, boolean synchronize, boolean serialize) {
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
@@ -125,13 +148,19 @@ public class CacheBuilder {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
-      if (readWrite) {
-        cache = new SerializedCache(cache);
+      if (serialize) {
+        cache = serializer == null ? new SerializedCache(cache) : new SerializedCache(cache, serializer);
       }
       cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
+      if (synchronize) {
+        cache = new SynchronizedCache(cache);
+      }
       if (blocking) {
-        cache = new BlockingCache(cache);
+        BlockingCache blockingCache = new BlockingCache(cache);
+        setCacheProperties(blockingCache);
+        // set after the properties: waiting threads can share the loaded value only when they would not get copies anyway
+        blockingCache.setHandOff(!serialize);
+        cache = blockingCache;
       }
       return cache;
     } catch (Exception e) {
@@ -19,6 +19,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
@@ -200,6 +201,13 @@ public class XPathParser {
 
   public List<XNode> evalNodes(Object root, String expression) {
     List<XNode> xnodes = new ArrayList<>();
+    List<Node> elements = selectElements(root, expression);
+    if (elements != null) {
+      for (Node element : elements) {
+        xnodes.add(new XNode(this, element, variables));
+      }
+      return xnodes;
+    }
     NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
     for (int i = 0; i < nodes.getLength(); i++) {
       xnodes.add(new XNode(this, nodes.item(i), variables));
@@ -212,13 +220,85 @@ public class XPathParser {
   }
 
   public XNode evalNode(Object root, String expression) {
-    Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    List<Node> elements = selectElements(root, expression);
+    Node node = elements == null ? (Node) evaluate(expression, root, XPathConstants.NODE)
+        : elements.isEmpty() ? null : elements.get(0);
     if (node == null) {
       return null;
     }
     return new XNode(this, node, variables);
   }
 
+  /**
+   * Selects the elements of a plain path such as <code>/mapper/resultMap</code> or <code>cache</code>, or of
+   * alternative child names such as <code>select|insert</code>, by walking the children of the nodes, in document
+   * order like XPath does. Returns null for any other expression, which is evaluated by XPath.
+   */
+  private static List<Node> selectElements(Object root, String expression) {
+    if (!(root instanceof Node) || expression.isEmpty()) {
+      return null;
+    }
+    Node context = (Node) root;
+    final boolean absolute = expression.charAt(0) == '/';
+    final String path = absolute ? expression.substring(1) : expression;
+    if (absolute) {
+      context = context.getNodeType() == Node.DOCUMENT_NODE ? context : context.getOwnerDocument();
+    }
+    if (path.indexOf('|') >= 0) {
+      if (absolute || path.indexOf('/') >= 0) {
+        return null;
+      }
+      final String[] names = path.split("\\|", -1);
+      for (String name : names) {
+        if (!isName(name)) {
+          return null;
+        }
+      }
+      return childElements(Collections.singletonList(context), names);
+    }
+    final String[] steps = path.split("/", -1);
+    for (String step : steps) {
+      if (!isName(step)) {
+        return null;
+      }
+    }
+    List<Node> nodes = Collections.singletonList(context);
+    for (String step : steps) {
+      nodes = childElements(nodes, step);
+    }
+    return nodes;
+  }
+
+  private static List<Node> childElements(List<Node> parents, String... names) {
+    final List<Node> elements = new ArrayList<>();
+    for (Node parent : parents) {
+      for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+        if (child.getNodeType() == Node.ELEMENT_NODE) {
+          for (String name : names) {
+            if (name.equals(child.getNodeName())) {
+              elements.add(child);
+              break;
+            }
+          }
+        }
+      }
+    }
+    return elements;
+  }
+
+  private static boolean isName(String name) {
+    if (name.isEmpty() || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+      return false;
+    }
+    for (int i = 1; i < name.length(); i++) {
+      final char c = name.charAt(i);
+      if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private Object evaluate(String expression, Object root, QName returnType) {
     try {
       return xpath.evaluate(expression, root, returnType);
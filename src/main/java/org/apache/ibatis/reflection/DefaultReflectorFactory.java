@@ -20,6 +20,7 @@ import java.util.concurrent.ConcurrentMap;
 
 public class DefaultReflectorFactory implements ReflectorFactory {
   private boolean classCacheEnabled = true;
+  private boolean generateAccessors;
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
 
   public DefaultReflectorFactory() {
@@ -35,14 +36,41 @@ public class DefaultReflectorFactory implements ReflectorFactory {
     this.classCacheEnabled = classCacheEnabled;
   }
 
+  /**
+   * Gets whether the reflectors call getters and setters through generated accessors.
+   *
+   * @return true if the accessors are generated
+   * @since 3.5.7
+   */
+  public boolean isGenerateAccessors() {
+    return generateAccessors;
+  }
+
+  /**
+   * Sets whether the reflectors created from now on call getters and setters through generated accessors.
+   *
+   * @param generateAccessors
+   *          true to generate the accessors
+   * @since 3.5.7
+   * @see Reflector#Reflector(Class, boolean)
+   */
+  public void setGenerateAccessors(boolean generateAccessors) {
+    this.generateAccessors = generateAccessors;
+  }
+
   @Override
   public Reflector findForClass(Class<?> type) {
     if (classCacheEnabled) {
       // synchronized (type) removed see issue #461
-      return reflectorMap.computeIfAbsent(type, Reflector::new);
+      Reflector reflector = reflectorMap.get(type);
+      return reflector != null ? reflector : reflectorMap.computeIfAbsent(type, this::newReflector);
     } else {
-      return new Reflector(type);
+      return newReflector(type);
     }
   }
 
+  private Reflector newReflector(Class<?> type) {
+    return new Reflector(type, generateAccessors);
+  }
+
 }
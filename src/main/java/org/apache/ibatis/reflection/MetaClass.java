@@ -24,6 +24,7 @@ import java.util.List;
 
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 
@@ -170,9 +171,10 @@ public class MetaClass {
     try {
       // 根据字段属性名获取invoker，该invoker有可能是MethodInvoker，也有可能是GetFieldInvoker（详细看Reflector类中的getMethods）
       Invoker invoker = reflector.getGetInvoker(propertyName);
-      if (invoker instanceof MethodInvoker) {
+      if (invoker instanceof MethodInvoker || invoker instanceof LambdaMethodInvoker) {
         // 获取MethodInvoker的Method字段，因为没有对外访问的方法，通过获取Field declaredMethod，获取到 Method method
-        Field declaredMethod = MethodInvoker.class.getDeclaredField("method");
+        Class<?> invokerType = invoker instanceof MethodInvoker ? MethodInvoker.class : LambdaMethodInvoker.class;
+        Field declaredMethod = invokerType.getDeclaredField("method");
         declaredMethod.setAccessible(true);
         Method method = (Method) declaredMethod.get(invoker);// field.get(Object)
         // 获取field的值，即获取到MethodInvoker里面的method，method里面包含了返回类型是什么（因为是getter方法，返回类型就是字段的类型）
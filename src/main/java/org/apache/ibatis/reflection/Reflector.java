@@ -37,6 +37,7 @@ import java.util.Map.Entry;
 import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
@@ -76,8 +77,24 @@ public class Reflector {
 
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
+  private final boolean generateAccessors;
+
   public Reflector(Class<?> clazz) {
+    this(clazz, false);
+  }
+
+  /**
+   * Instantiates a new reflector.
+   *
+   * @param clazz
+   *          the class
+   * @param generateAccessors
+   *          whether getters and setters are called through {@link LambdaMethodInvoker}s instead of reflection
+   * @since 3.5.7
+   */
+  public Reflector(Class<?> clazz, boolean generateAccessors) {
     type = clazz;
+    this.generateAccessors = generateAccessors;
     addDefaultConstructor(clazz);
     // 为getMethods、getTypes赋值
     addGetMethods(clazz);
@@ -162,11 +179,11 @@ public class Reflector {
   }
 
   private void addGetMethod(String name, Method method, boolean isAmbiguous) {
-    MethodInvoker invoker = isAmbiguous
+    Invoker invoker = isAmbiguous
         ? new AmbiguousMethodInvoker(method, MessageFormat.format(
             "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
             name, method.getDeclaringClass().getName()))
-        : new MethodInvoker(method);
+        : newMethodInvoker(method, true);
     getMethods.put(name, invoker);
     Type returnType = TypeParameterResolver.resolveReturnType(method, type);
     getTypes.put(name, typeToClass(returnType));
@@ -242,12 +259,22 @@ public class Reflector {
   }
 
   private void addSetMethod(String name, Method method) {
-    MethodInvoker invoker = new MethodInvoker(method);
+    Invoker invoker = newMethodInvoker(method, false);
     setMethods.put(name, invoker);
     Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
     setTypes.put(name, typeToClass(paramTypes[0]));
   }
 
+  private Invoker newMethodInvoker(Method method, boolean getter) {
+    if (generateAccessors) {
+      Invoker invoker = getter ? LambdaMethodInvoker.forGetter(method) : LambdaMethodInvoker.forSetter(method);
+      if (invoker != null) {
+        return invoker;
+      }
+    }
+    return new MethodInvoker(method);
+  }
+
   /**
    * 获取属性的类型，并且转换为Class
    * 注：Type有5个子类型，
@@ -0,0 +1,149 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * Calls a getter or a setter through a {@link Function} or a {@link BiConsumer} implemented with
+ * {@link LambdaMetafactory}, so that the call is a plain virtual call instead of a {@link Method#invoke}.
+ * <p>
+ * The lambda is defined with a lookup in the class that declares the method, which needs
+ * <code>MethodHandles.privateLookupIn</code> (JDK 9+). Where it is not available, or the method cannot be looked up,
+ * {@link #forGetter(Method)} and {@link #forSetter(Method)} return <code>null</code> and the caller keeps a
+ * {@link MethodInvoker}.
+ *
+ * @since 3.5.7
+ */
+public final class LambdaMethodInvoker implements Invoker {
+
+  private static final Method privateLookupInMethod;
+
+  private final Method method;
+  private final Class<?> type;
+  private final Function<Object, Object> getter;
+  private final BiConsumer<Object, Object> setter;
+
+  static {
+    Method privateLookupIn;
+    try {
+      privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+    } catch (NoSuchMethodException e) {
+      privateLookupIn = null;
+    }
+    privateLookupInMethod = privateLookupIn;
+  }
+
+  private LambdaMethodInvoker(Method method, Class<?> type, Function<Object, Object> getter,
+      BiConsumer<Object, Object> setter) {
+    this.method = method;
+    this.type = type;
+    this.getter = getter;
+    this.setter = setter;
+  }
+
+  /**
+   * Creates an invoker for a getter.
+   *
+   * @param method
+   *          an instance method without parameters
+   * @return the invoker, or <code>null</code> if it cannot be generated
+   */
+  @SuppressWarnings("unchecked")
+  public static LambdaMethodInvoker forGetter(Method method) {
+    Class<?> returnType = method.getReturnType();
+    try {
+      Lookup lookup = lookupIn(method);
+      if (lookup == null || method.getParameterCount() != 0 || returnType == void.class) {
+        return null;
+      }
+      MethodHandle handle = lookup.unreflect(method);
+      CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+          MethodType.methodType(Object.class, Object.class), handle,
+          MethodType.methodType(wrap(returnType), method.getDeclaringClass()));
+      return new LambdaMethodInvoker(method, returnType, (Function<Object, Object>) site.getTarget().invokeWithArguments(), null);
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+
+  /**
+   * Creates an invoker for a setter.
+   *
+   * @param method
+   *          an instance method with one parameter
+   * @return the invoker, or <code>null</code> if it cannot be generated
+   */
+  @SuppressWarnings("unchecked")
+  public static LambdaMethodInvoker forSetter(Method method) {
+    try {
+      Lookup lookup = lookupIn(method);
+      if (lookup == null || method.getParameterCount() != 1) {
+        return null;
+      }
+      Class<?> parameterType = method.getParameterTypes()[0];
+      MethodHandle handle = lookup.unreflect(method);
+      CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+          MethodType.methodType(void.class, Object.class, Object.class), handle,
+          MethodType.methodType(void.class, method.getDeclaringClass(), wrap(parameterType)));
+      return new LambdaMethodInvoker(method, parameterType, null, (BiConsumer<Object, Object>) site.getTarget().invokeWithArguments());
+    } catch (Throwable t) {
+      return null;
+    }
+  }
+
+  private static Lookup lookupIn(Method method) throws ReflectiveOperationException {
+    if (privateLookupInMethod == null || Modifier.isStatic(method.getModifiers()) || !Reflector.canControlMemberAccessible()) {
+      return null;
+    }
+    return (Lookup) privateLookupInMethod.invoke(null, method.getDeclaringClass(), MethodHandles.lookup());
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  @Override
+  public Object invoke(Object target, Object[] args) throws InvocationTargetException {
+    // wrapped like Method#invoke does, so callers unwrap the same way
+    try {
+      if (getter != null) {
+        return getter.apply(target);
+      }
+      setter.accept(target, args[0]);
+      return null;
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t);
+    }
+  }
+
+  @Override
+  public Class<?> getType() {
+    return type;
+  }
+}
@@ -25,6 +25,7 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
@@ -63,6 +64,13 @@ public class DefaultParameterHandler implements ParameterHandler {
     ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
+      ParameterBindingPlan plan = getBindingPlan(parameterMappings);
+      if (plan != null) {
+        plan.setParameters(ps, parameterObject, boundSql, configuration);
+        return;
+      }
+      boolean hasTypeHandler = parameterObject != null && typeHandlerRegistry.hasTypeHandler(parameterObject.getClass());
+      MetaObject metaObject = null;
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         if (parameterMapping.getMode() != ParameterMode.OUT) {
@@ -72,25 +80,40 @@ public class DefaultParameterHandler implements ParameterHandler {
             value = boundSql.getAdditionalParameter(propertyName);
           } else if (parameterObject == null) {
             value = null;
-          } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+          } else if (hasTypeHandler) {
             value = parameterObject;
           } else {
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
+            if (metaObject == null) {
+              metaObject = configuration.newMetaObject(parameterObject);
+            }
             value = metaObject.getValue(propertyName);
           }
-          TypeHandler typeHandler = parameterMapping.getTypeHandler();
-          JdbcType jdbcType = parameterMapping.getJdbcType();
-          if (value == null && jdbcType == null) {
-            jdbcType = configuration.getJdbcTypeForNull();
-          }
-          try {
-            typeHandler.setParameter(ps, i + 1, value, jdbcType);
-          } catch (TypeException | SQLException e) {
-            throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
-          }
+          setParameter(ps, i + 1, parameterMapping, value, configuration);
         }
       }
     }
   }
 
+  private ParameterBindingPlan getBindingPlan(List<ParameterMapping> parameterMappings) {
+    SqlSource sqlSource = mappedStatement.getSqlSource();
+    if (parameterObject == null || !(sqlSource instanceof RawSqlSource)) {
+      return null;
+    }
+    return ((RawSqlSource) sqlSource).getBindingPlan(configuration, parameterMappings, parameterObject.getClass());
+  }
+
+  static void setParameter(PreparedStatement ps, int index, ParameterMapping parameterMapping, Object value,
+      Configuration configuration) {
+    TypeHandler typeHandler = parameterMapping.getTypeHandler();
+    JdbcType jdbcType = parameterMapping.getJdbcType();
+    if (value == null && jdbcType == null) {
+      jdbcType = configuration.getJdbcTypeForNull();
+    }
+    try {
+      typeHandler.setParameter(ps, index, value, jdbcType);
+    } catch (TypeException | SQLException e) {
+      throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
+    }
+  }
+
 }
@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.defaults;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The parameter bindings of a static statement for one parameter type. How each value is read (the parameter itself,
+ * a getter, a map entry or, for anything else, a {@link MetaObject}) is decided once, so binding a row is a loop over
+ * precomputed bindings.
+ *
+ * @since 3.5.7
+ */
+final class ParameterBindingPlan {
+
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final List<ParameterMapping> parameterMappings;
+  private final Binding[] bindings;
+
+  ParameterBindingPlan(Configuration configuration, List<ParameterMapping> parameterMappings, Class<?> parameterType) {
+    this.parameterMappings = parameterMappings;
+    boolean hasTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType);
+    // the same choice MetaObject makes, as long as no custom ObjectWrapperFactory is involved
+    boolean readable = !hasTypeHandler && !ObjectWrapper.class.isAssignableFrom(parameterType)
+        && configuration.getObjectWrapperFactory().getClass() == DefaultObjectWrapperFactory.class;
+    boolean map = readable && Map.class.isAssignableFrom(parameterType);
+    boolean bean = readable && !map && !Collection.class.isAssignableFrom(parameterType);
+    Reflector reflector = bean ? configuration.getReflectorFactory().findForClass(parameterType) : null;
+    Binding[] bindings = new Binding[parameterMappings.size()];
+    int count = 0;
+    for (int i = 0; i < parameterMappings.size(); i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      String property = parameterMapping.getProperty();
+      boolean simple = property.indexOf('.') < 0 && property.indexOf('[') < 0;
+      Invoker getter = null;
+      byte source;
+      if (hasTypeHandler) {
+        source = Binding.PARAMETER;
+      } else if (map && simple) {
+        source = Binding.MAP_ENTRY;
+      } else if (bean && simple && reflector.hasGetter(property)) {
+        source = Binding.GETTER;
+        getter = reflector.getGetInvoker(property);
+      } else {
+        source = Binding.META_OBJECT;
+      }
+      bindings[count++] = new Binding(i + 1, parameterMapping, source, getter);
+    }
+    this.bindings = count == bindings.length ? bindings : Arrays.copyOf(bindings, count);
+  }
+
+  List<ParameterMapping> getParameterMappings() {
+    return parameterMappings;
+  }
+
+  void setParameters(PreparedStatement ps, Object parameterObject, BoundSql boundSql, Configuration configuration) {
+    MetaObject metaObject = null;
+    for (Binding binding : bindings) {
+      String propertyName = binding.property;
+      Object value;
+      if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+        value = boundSql.getAdditionalParameter(propertyName);
+      } else {
+        switch (binding.source) {
+          case Binding.PARAMETER:
+            value = parameterObject;
+            break;
+          case Binding.MAP_ENTRY:
+            value = ((Map<?, ?>) parameterObject).get(propertyName);
+            break;
+          case Binding.GETTER:
+            value = binding.getValue(parameterObject);
+            break;
+          default:
+            if (metaObject == null) {
+              metaObject = configuration.newMetaObject(parameterObject);
+            }
+            value = metaObject.getValue(propertyName);
+        }
+      }
+      DefaultParameterHandler.setParameter(ps, binding.index, binding.parameterMapping, value, configuration);
+    }
+  }
+
+  private static final class Binding {
+
+    static final byte PARAMETER = 0;
+    static final byte MAP_ENTRY = 1;
+    static final byte GETTER = 2;
+    static final byte META_OBJECT = 3;
+
+    private final int index;
+    private final ParameterMapping parameterMapping;
+    private final String property;
+    private final byte source;
+    private final Invoker getter;
+
+    Binding(int index, ParameterMapping parameterMapping, byte source, Invoker getter) {
+      this.index = index;
+      this.parameterMapping = parameterMapping;
+      this.property = parameterMapping.getProperty();
+      this.source = source;
+      this.getter = getter;
+    }
+
+    Object getValue(Object parameterObject) {
+      // same error handling as BeanWrapper
+      try {
+        try {
+          return getter.invoke(parameterObject, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not get property '" + property + "' from " + parameterObject.getClass()
+            + ".  Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+}
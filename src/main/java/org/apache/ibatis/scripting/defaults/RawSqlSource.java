@@ -16,9 +16,13 @@
 package org.apache.ibatis.scripting.defaults;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.scripting.xmltags.DynamicContext;
 import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
@@ -36,6 +40,7 @@ import org.apache.ibatis.session.Configuration;
 public class RawSqlSource implements SqlSource {
 
   private final SqlSource sqlSource;
+  private final Map<Class<?>, ParameterBindingPlan> bindingPlans = new ConcurrentHashMap<>();
 
   public RawSqlSource(Configuration configuration, SqlNode rootSqlNode, Class<?> parameterType) {
     this(configuration, getSql(configuration, rootSqlNode), parameterType);
@@ -58,4 +63,18 @@ public class RawSqlSource implements SqlSource {
     return sqlSource.getBoundSql(parameterObject);
   }
 
+  /**
+   * Returns the binding plan for the parameter mappings of this source and the given parameter type, or
+   * <code>null</code> when the mappings are not the ones this source produced (e.g. replaced by a plugin).
+   */
+  ParameterBindingPlan getBindingPlan(Configuration configuration, List<ParameterMapping> parameterMappings,
+      Class<?> parameterType) {
+    ParameterBindingPlan plan = bindingPlans.get(parameterType);
+    if (plan == null) {
+      plan = bindingPlans.computeIfAbsent(parameterType,
+          type -> new ParameterBindingPlan(configuration, parameterMappings, type));
+    }
+    return plan.getParameterMappings() == parameterMappings ? plan : null;
+  }
+
 }
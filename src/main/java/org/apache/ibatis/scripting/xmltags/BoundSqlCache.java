@@ -0,0 +1,82 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the SQL and parameter placeholders of a dynamic statement by shape, that is by the static nodes that were
+ * applied, the text appended by the other nodes and the iterations of its <code>foreach</code> elements. Once the
+ * cache holds <code>maxSize</code> shapes, new shapes are rendered but no longer stored.
+ * <p>
+ * The shape is recorded by evaluating the dynamic elements of the statement once. On a miss the SQL is rendered from
+ * the recorded shape, so the expressions of the statement are evaluated once per call whether the shape was cached
+ * or not.
+ *
+ * @since 3.5.7
+ * @see DynamicSqlSource#getBoundSqlCache()
+ */
+public class BoundSqlCache {
+
+  private final int maxSize;
+  private final Map<List<Object>, CompiledSqlText> shapes = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public BoundSqlCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  CompiledSqlText get(List<Object> shape) {
+    CompiledSqlText sql = shapes.get(shape);
+    if (sql == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return sql;
+  }
+
+  void put(List<Object> shape, CompiledSqlText sql) {
+    if (shapes.size() < maxSize) {
+      shapes.putIfAbsent(shape, sql);
+    }
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getSize() {
+    return shapes.size();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public void clear() {
+    shapes.clear();
+  }
+
+}
@@ -0,0 +1,147 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.reflection.MetaObject;
+
+/**
+ * A piece of SQL whose <code>#{}</code> placeholders have already been replaced by <code>?</code>, together with the
+ * parsed placeholders in order of appearance.
+ *
+ * @since 3.5.7
+ */
+final class CompiledSqlText {
+
+  private final String sql;
+  private final List<Placeholder> placeholders;
+
+  private CompiledSqlText(String sql, List<Placeholder> placeholders) {
+    this.sql = sql;
+    this.placeholders = placeholders;
+  }
+
+  /**
+   * Compiles a piece of SQL.
+   *
+   * @param text
+   *          the SQL, possibly containing <code>#{}</code> placeholders
+   * @return the compiled SQL
+   * @throws BuilderException
+   *           if a placeholder cannot be parsed
+   */
+  static CompiledSqlText compile(String text) {
+    List<Placeholder> placeholders = new ArrayList<>();
+    GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
+      placeholders.add(new Placeholder(content, SqlSourceBuilder.parseParameterMapping(content)));
+      return "?";
+    });
+    String sql = parser.parse(text);
+    return new CompiledSqlText(sql, placeholders.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(placeholders));
+  }
+
+  /**
+   * Wraps SQL that has been built from compiled pieces.
+   */
+  static CompiledSqlText of(String sql, List<Placeholder> placeholders) {
+    return new CompiledSqlText(sql, Collections.unmodifiableList(new ArrayList<>(placeholders)));
+  }
+
+  /**
+   * Compiles a piece of SQL ahead of time, returning <code>null</code> when it cannot be compiled so that the error is
+   * reported when the statement is executed, as it would be without compilation.
+   */
+  static CompiledSqlText tryCompile(String text) {
+    if (text == null) {
+      return null;
+    }
+    try {
+      return compile(text);
+    } catch (BuilderException e) {
+      return null;
+    }
+  }
+
+  String getSql() {
+    return sql;
+  }
+
+  List<Placeholder> getPlaceholders() {
+    return placeholders;
+  }
+
+  /**
+   * A parsed <code>#{}</code> placeholder.
+   */
+  static final class Placeholder {
+
+    private final String content;
+    private final String property;
+    private final Map<String, String> propertiesMap;
+    private volatile ResolvedMapping resolved;
+
+    Placeholder(String content, Map<String, String> propertiesMap) {
+      this(content, propertiesMap.get("property"), propertiesMap);
+    }
+
+    private Placeholder(String content, String property, Map<String, String> propertiesMap) {
+      this.content = content;
+      this.property = property;
+      this.propertiesMap = propertiesMap;
+    }
+
+    String getProperty() {
+      return property;
+    }
+
+    /**
+     * Returns this placeholder referring to another property, which is how a <code>foreach</code> binds its item.
+     */
+    Placeholder rename(String newProperty) {
+      return new Placeholder(content, newProperty, propertiesMap);
+    }
+
+    ParameterMapping toParameterMapping(SqlSourceBuilder builder, Class<?> parameterType, MetaObject metaParameters) {
+      Class<?> propertyType = builder.resolvePropertyType(property, propertiesMap, parameterType, metaParameters);
+      ResolvedMapping current = resolved;
+      if (current != null && current.propertyType == propertyType) {
+        return current.mapping;
+      }
+      ParameterMapping mapping = builder.buildParameterMapping(content, property, propertiesMap, propertyType);
+      resolved = new ResolvedMapping(propertyType, mapping);
+      return mapping;
+    }
+  }
+
+  private static final class ResolvedMapping {
+    private final Class<?> propertyType;
+    private final ParameterMapping mapping;
+
+    private ResolvedMapping(Class<?> propertyType, ParameterMapping mapping) {
+      this.propertyType = propertyType;
+      this.mapping = mapping;
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,7 +15,9 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
 
@@ -34,6 +36,10 @@ public class DynamicContext {
   public static final String PARAMETER_OBJECT_KEY = "_parameter";
   public static final String DATABASE_ID_KEY = "_databaseId";
 
+  static final Object UNIQUE_NUMBER = new Object();
+  static final Object NEXT_ITEM = new Object();
+  static final Object END_OF_NODE = new Object();
+
   static {
     OgnlRuntime.setPropertyAccessor(ContextMap.class, new ContextAccessor());
   }
@@ -41,8 +47,28 @@ public class DynamicContext {
   private final ContextMap bindings;
   private final StringJoiner sqlBuilder = new StringJoiner(" ");
   private int uniqueNumber = 0;
+  private final List<CompiledSqlText.Placeholder> placeholders;
+  private final List<Object> shape;
+  private final boolean compileExpressions;
 
   public DynamicContext(Configuration configuration, Object parameterObject) {
+    this(configuration, parameterObject, false);
+  }
+
+  /**
+   * Creates a context that collects SQL in which <code>#{}</code> placeholders have already been replaced by
+   * <code>?</code> when <code>compiled</code> is true.
+   *
+   * @since 3.5.7
+   */
+  DynamicContext(Configuration configuration, Object parameterObject, boolean compiled) {
+    this(configuration, parameterObject, compiled, false);
+  }
+
+  private DynamicContext(Configuration configuration, Object parameterObject, boolean compiled, boolean recordingShape) {
+    this.placeholders = compiled ? new ArrayList<>() : null;
+    this.shape = recordingShape ? new ArrayList<>() : null;
+    this.compileExpressions = configuration.isCompileExpressions();
     if (parameterObject != null && !(parameterObject instanceof Map)) {
       MetaObject metaObject = configuration.newMetaObject(parameterObject);
       boolean existsTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
@@ -54,6 +80,20 @@ public class DynamicContext {
     bindings.put(DATABASE_ID_KEY, configuration.getDatabaseId());
   }
 
+  /**
+   * Creates a context that evaluates the dynamic parts of a statement without building its SQL. Instead it records the
+   * static nodes that were applied, the text appended by other nodes, the unique numbers that were taken and where the
+   * contents of each <code>foreach</code>, <code>trim</code>, <code>where</code> and <code>set</code> element begin
+   * and end. Since the open, close, separator, prefix and suffix of an element are fixed, and whether they are applied
+   * only depends on its recorded contents, these together determine the SQL and parameter mappings a compiled context
+   * would produce.
+   *
+   * @since 3.5.7
+   */
+  static DynamicContext recordingShape(Configuration configuration, Object parameterObject) {
+    return new DynamicContext(configuration, parameterObject, false, true);
+  }
+
   public Map<String, Object> getBindings() {
     return bindings;
   }
@@ -63,14 +103,89 @@ public class DynamicContext {
   }
 
   public void appendSql(String sql) {
+    if (shape != null) {
+      shape.add(sql);
+    } else if (placeholders != null && sql != null && sql.contains("#{")) {
+      CompiledSqlText compiledSql = CompiledSqlText.compile(sql);
+      appendCompiledSql(compiledSql.getSql(), compiledSql.getPlaceholders());
+    } else {
+      sqlBuilder.add(sql);
+    }
+  }
+
+  /**
+   * Appends SQL whose placeholders have already been replaced by <code>?</code>. Only called when
+   * {@link #isCompiled()} returns true.
+   */
+  void appendCompiledSql(String sql, List<CompiledSqlText.Placeholder> placeholders) {
     sqlBuilder.add(sql);
+    this.placeholders.addAll(placeholders);
+  }
+
+  /**
+   * Returns whether this context accepts compiled SQL. Contexts that wrap another one must delegate this call,
+   * otherwise nodes fall back to appending their original text.
+   */
+  boolean isCompiled() {
+    return placeholders != null;
+  }
+
+  List<CompiledSqlText.Placeholder> getPlaceholders() {
+    return placeholders;
+  }
+
+  /**
+   * Returns whether this context records the shape of the statement. Built-in nodes then apply their contents to this
+   * context directly and static nodes record themselves instead of their text.
+   */
+  boolean isRecordingShape() {
+    return shape != null;
+  }
+
+  void recordShape(SqlNode node) {
+    shape.add(node);
+  }
+
+  /**
+   * Records the end of the contents of a node that was recorded with {@link #recordShape(SqlNode)}, so that contents
+   * applied inside and after it never produce the same shape.
+   */
+  void recordEndOfShape() {
+    shape.add(END_OF_NODE);
+  }
+
+  /**
+   * Records the start of an item of a <code>foreach</code> that was recorded with {@link #recordShape(SqlNode)}.
+   *
+   * @return the unique number of the item
+   */
+  int recordNextItem() {
+    shape.add(NEXT_ITEM);
+    return uniqueNumber++;
+  }
+
+  List<Object> getShape() {
+    return shape;
   }
 
   public String getSql() {
     return sqlBuilder.toString().trim();
   }
 
+  /**
+   * Evaluates an expression against the bindings of this context.
+   *
+   * @since 3.5.7
+   */
+  Object evaluate(String expression) {
+    Map<String, Object> bindings = getBindings();
+    return compileExpressions ? ExpressionCompiler.getValue(expression, bindings) : OgnlCache.getValue(expression, bindings);
+  }
+
   public int getUniqueNumber() {
+    if (shape != null) {
+      shape.add(UNIQUE_NUMBER);
+    }
     return uniqueNumber++;
   }
 
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,9 +15,14 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -28,14 +33,25 @@ public class DynamicSqlSource implements SqlSource {
 
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  private final BoundSqlCache boundSqlCache;
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
     this.rootSqlNode = rootSqlNode;
+    int boundSqlCacheSize = configuration.getBoundSqlCacheSize();
+    this.boundSqlCache = boundSqlCacheSize > 0 ? new BoundSqlCache(boundSqlCacheSize) : null;
   }
 
   @Override
   public BoundSql getBoundSql(Object parameterObject) {
+    if (boundSqlCache != null) {
+      return getCachedBoundSql(parameterObject);
+    }
+    if (configuration.isCompileDynamicSql()) {
+      DynamicContext context = new DynamicContext(configuration, parameterObject, true);
+      rootSqlNode.apply(context);
+      return createBoundSql(toCompiledSql(context), context, parameterObject);
+    }
     DynamicContext context = new DynamicContext(configuration, parameterObject);
     rootSqlNode.apply(context);
     SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
@@ -46,4 +62,54 @@ public class DynamicSqlSource implements SqlSource {
     return boundSql;
   }
 
+  /**
+   * Gets the cache of the SQL shapes of this statement.
+   *
+   * @return the cache, or null when the <code>boundSqlCacheSize</code> setting was not positive when this statement
+   *         was loaded
+   * @since 3.5.7
+   */
+  public BoundSqlCache getBoundSqlCache() {
+    return boundSqlCache;
+  }
+
+  private BoundSql getCachedBoundSql(Object parameterObject) {
+    DynamicContext context = DynamicContext.recordingShape(configuration, parameterObject);
+    rootSqlNode.apply(context);
+    List<Object> shape = context.getShape();
+    CompiledSqlText compiledSql = boundSqlCache.get(shape);
+    if (compiledSql == null) {
+      // the dynamic elements have been evaluated while recording, the SQL follows from what they recorded
+      DynamicContext sqlContext = new DynamicContext(configuration, null, true);
+      new RecordedShape(shape).renderContents(sqlContext);
+      compiledSql = toCompiledSql(sqlContext);
+      boundSqlCache.put(shape, compiledSql);
+    }
+    return createBoundSql(compiledSql, context, parameterObject);
+  }
+
+  private CompiledSqlText toCompiledSql(DynamicContext context) {
+    String sql = context.getSql();
+    if (configuration.isShrinkWhitespacesInSql()) {
+      sql = SqlSourceBuilder.removeExtraWhitespaces(sql);
+    }
+    return CompiledSqlText.of(sql, context.getPlaceholders());
+  }
+
+  private BoundSql createBoundSql(CompiledSqlText compiledSql, DynamicContext context, Object parameterObject) {
+    List<CompiledSqlText.Placeholder> placeholders = compiledSql.getPlaceholders();
+    List<ParameterMapping> parameterMappings = new ArrayList<>(placeholders.size());
+    if (!placeholders.isEmpty()) {
+      SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
+      Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
+      MetaObject metaParameters = configuration.newMetaObject(context.getBindings());
+      for (CompiledSqlText.Placeholder placeholder : placeholders) {
+        parameterMappings.add(placeholder.toParameterMapping(sqlSourceParser, parameterType, metaParameters));
+      }
+    }
+    BoundSql boundSql = new BoundSql(configuration, compiledSql.getSql(), parameterMappings, parameterObject);
+    context.getBindings().forEach(boundSql::setAdditionalParameter);
+    return boundSql;
+  }
+
 }
@@ -0,0 +1,436 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ognl.ASTAnd;
+import ognl.ASTChain;
+import ognl.ASTConst;
+import ognl.ASTEq;
+import ognl.ASTGreater;
+import ognl.ASTGreaterEq;
+import ognl.ASTLessEq;
+import ognl.ASTMethod;
+import ognl.ASTNot;
+import ognl.ASTNotEq;
+import ognl.ASTOr;
+import ognl.ASTProperty;
+import ognl.ArrayPropertyAccessor;
+import ognl.ListPropertyAccessor;
+import ognl.MapPropertyAccessor;
+import ognl.Node;
+import ognl.ObjectNullHandler;
+import ognl.ObjectPropertyAccessor;
+import ognl.Ognl;
+import ognl.OgnlContext;
+import ognl.OgnlException;
+import ognl.OgnlOps;
+import ognl.OgnlRuntime;
+import ognl.PropertyAccessor;
+import ognl.SetPropertyAccessor;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.lang.UsesJava8;
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * Compiles the common subset of OGNL used in mappers into a tree of small evaluators: constants, property paths,
+ * <code>size()</code>, <code>isEmpty()</code> and <code>length()</code>, comparisons and boolean operators. Property
+ * accessors are resolved with the rules of OGNL once per target class and invoked through method handles. Other
+ * expressions, and evaluations the compiled form cannot complete (a null in a property path, ...), are evaluated by
+ * OGNL so that results and errors stay the same. An exception thrown by a getter is reported as OGNL reports it,
+ * without calling the getter again.
+ *
+ * @since 3.5.7
+ */
+final class ExpressionCompiler {
+
+  private static final OgnlMemberAccess MEMBER_ACCESS = new OgnlMemberAccess();
+  private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
+  // the only comparison node that is not public
+  private static final String AST_LESS = "ognl.ASTLess";
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final Map<String, CompiledExpression> expressionCache = new ConcurrentHashMap<>();
+
+  private static final CompiledExpression NOT_COMPILED = root -> {
+    throw FallbackException.INSTANCE;
+  };
+
+  private static final Navigation FALLBACK = target -> {
+    throw FallbackException.INSTANCE;
+  };
+
+  private ExpressionCompiler() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static Object getValue(String expression, Object root) {
+    CompiledExpression compiled = expressionCache.computeIfAbsent(expression, ExpressionCompiler::compile);
+    if (compiled != NOT_COMPILED) {
+      try {
+        return compiled.getValue(root);
+      } catch (PropertyFailedException e) {
+        // the getter already ran, report its failure as OGNL does instead of calling it again
+        throw new BuilderException("Error evaluating expression '" + expression + "'. Cause: " + e.getCause(), e.getCause());
+      } catch (RuntimeException e) {
+        // evaluated by OGNL below
+      }
+    }
+    return OgnlCache.getValue(expression, root);
+  }
+
+  static boolean isCompiled(String expression) {
+    return expressionCache.computeIfAbsent(expression, ExpressionCompiler::compile) != NOT_COMPILED;
+  }
+
+  private static CompiledExpression compile(String expression) {
+    try {
+      CompiledExpression compiled = compileNode((Node) Ognl.parseExpression(expression));
+      return compiled == null ? NOT_COMPILED : compiled;
+    } catch (OgnlException e) {
+      return NOT_COMPILED;
+    }
+  }
+
+  private static CompiledExpression compileNode(Node node) {
+    Class<?> type = node.getClass();
+    if (type == ASTConst.class) {
+      Object value = ((ASTConst) node).getValue();
+      return root -> value;
+    } else if (type == ASTProperty.class) {
+      PropertyGetter getter = compileProperty((ASTProperty) node);
+      return getter == null ? null : getter::getValue;
+    } else if (type == ASTChain.class) {
+      return compileChain(node);
+    } else if (type == ASTAnd.class || type == ASTOr.class) {
+      CompiledExpression[] children = compileChildren(node);
+      if (children == null) {
+        return null;
+      }
+      boolean and = type == ASTAnd.class;
+      return root -> {
+        Object result = null;
+        for (CompiledExpression child : children) {
+          result = child.getValue(root);
+          if (OgnlOps.booleanValue(result) != and) {
+            break;
+          }
+        }
+        return result;
+      };
+    } else if (type == ASTNot.class) {
+      CompiledExpression[] children = compileChildren(node);
+      if (children == null || children.length != 1) {
+        return null;
+      }
+      CompiledExpression child = children[0];
+      return root -> OgnlOps.booleanValue(child.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+    } else {
+      return compileComparison(node);
+    }
+  }
+
+  private static CompiledExpression compileComparison(Node node) {
+    Class<?> type = node.getClass();
+    boolean less = AST_LESS.equals(type.getName());
+    if (type != ASTEq.class && type != ASTNotEq.class && !less && type != ASTGreater.class
+        && type != ASTLessEq.class && type != ASTGreaterEq.class) {
+      return null;
+    }
+    CompiledExpression[] children = compileChildren(node);
+    if (children == null || children.length != 2) {
+      return null;
+    }
+    CompiledExpression left = children[0];
+    CompiledExpression right = children[1];
+    if (type == ASTEq.class) {
+      return root -> OgnlOps.equal(left.getValue(root), right.getValue(root)) ? Boolean.TRUE : Boolean.FALSE;
+    } else if (type == ASTNotEq.class) {
+      return root -> OgnlOps.equal(left.getValue(root), right.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+    } else if (less) {
+      return root -> OgnlOps.less(left.getValue(root), right.getValue(root)) ? Boolean.TRUE : Boolean.FALSE;
+    } else if (type == ASTGreater.class) {
+      return root -> OgnlOps.greater(left.getValue(root), right.getValue(root)) ? Boolean.TRUE : Boolean.FALSE;
+    } else if (type == ASTLessEq.class) {
+      return root -> OgnlOps.greater(left.getValue(root), right.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+    } else {
+      return root -> OgnlOps.less(left.getValue(root), right.getValue(root)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  private static CompiledExpression[] compileChildren(Node node) {
+    CompiledExpression[] children = new CompiledExpression[node.jjtGetNumChildren()];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = compileNode(node.jjtGetChild(i));
+      if (children[i] == null) {
+        return null;
+      }
+    }
+    return children;
+  }
+
+  private static CompiledExpression compileChain(Node chain) {
+    int length = chain.jjtGetNumChildren();
+    if (length == 0 || chain.jjtGetChild(0).getClass() != ASTProperty.class) {
+      return null;
+    }
+    Navigation[] steps = new Navigation[length];
+    for (int i = 0; i < length; i++) {
+      Node child = chain.jjtGetChild(i);
+      if (child.getClass() == ASTProperty.class) {
+        PropertyGetter getter = compileProperty((ASTProperty) child);
+        if (getter == null) {
+          return null;
+        }
+        steps[i] = getter::getValue;
+      } else if (child.getClass() == ASTMethod.class && child.jjtGetNumChildren() == 0) {
+        steps[i] = compileMethod(((ASTMethod) child).getMethodName());
+        if (steps[i] == null) {
+          return null;
+        }
+      } else {
+        return null;
+      }
+    }
+    return root -> {
+      Object result = root;
+      for (Navigation step : steps) {
+        result = step.navigate(result);
+      }
+      return result;
+    };
+  }
+
+  private static Navigation compileMethod(String name) {
+    switch (name) {
+      case "size":
+        return target -> {
+          if (target instanceof Collection) {
+            return ((Collection<?>) target).size();
+          } else if (target instanceof Map) {
+            return ((Map<?, ?>) target).size();
+          }
+          throw FallbackException.INSTANCE;
+        };
+      case "isEmpty":
+        return target -> {
+          if (target instanceof Collection) {
+            return ((Collection<?>) target).isEmpty();
+          } else if (target instanceof Map) {
+            return ((Map<?, ?>) target).isEmpty();
+          } else if (target instanceof String) {
+            return ((String) target).isEmpty();
+          }
+          throw FallbackException.INSTANCE;
+        };
+      case "length":
+        return target -> {
+          if (target instanceof CharSequence) {
+            return ((CharSequence) target).length();
+          }
+          throw FallbackException.INSTANCE;
+        };
+      default:
+        return null;
+    }
+  }
+
+  private static PropertyGetter compileProperty(ASTProperty property) {
+    if (property.isIndexedAccess() || property.jjtGetNumChildren() != 1
+        || property.jjtGetChild(0).getClass() != ASTConst.class) {
+      return null;
+    }
+    Object name = ((ASTConst) property.jjtGetChild(0)).getValue();
+    return name instanceof String ? new PropertyGetter((String) name) : null;
+  }
+
+  @FunctionalInterface
+  private interface CompiledExpression {
+    Object getValue(Object root);
+  }
+
+  @FunctionalInterface
+  private interface Navigation {
+    Object navigate(Object target);
+  }
+
+  /**
+   * Reads a property the way OGNL does for the class of the target, remembering the accessor of the last class.
+   */
+  private static final class PropertyGetter {
+
+    private final String name;
+    private final Map<Class<?>, Accessor> accessors = new ConcurrentHashMap<>();
+    private volatile Accessor lastAccessor;
+
+    private PropertyGetter(String name) {
+      this.name = name;
+    }
+
+    Object getValue(Object target) {
+      if (target == null) {
+        throw FallbackException.INSTANCE;
+      }
+      Class<?> type = target.getClass();
+      Accessor accessor = lastAccessor;
+      if (accessor == null || accessor.type != type) {
+        accessor = accessors.computeIfAbsent(type, this::link);
+        lastAccessor = accessor;
+      }
+      return accessor.navigation.navigate(target);
+    }
+
+    private Accessor link(Class<?> type) {
+      return new Accessor(type, resolve(type));
+    }
+
+    private Navigation resolve(Class<?> type) {
+      PropertyAccessor accessor;
+      try {
+        accessor = OgnlRuntime.getPropertyAccessor(type);
+        if (OgnlRuntime.getNullHandler(type).getClass() != ObjectNullHandler.class) {
+          return FALLBACK;
+        }
+      } catch (OgnlException e) {
+        return FALLBACK;
+      }
+      if (accessor instanceof DynamicContext.ContextAccessor) {
+        DynamicContext.ContextAccessor contextAccessor = (DynamicContext.ContextAccessor) accessor;
+        return target -> contextAccessor.getProperty(null, target, name);
+      }
+      Class<?> accessorType = accessor.getClass();
+      if (accessorType == MapPropertyAccessor.class) {
+        return resolveMapProperty();
+      } else if (accessorType == ListPropertyAccessor.class || accessorType == SetPropertyAccessor.class) {
+        if ("size".equals(name)) {
+          return target -> ((Collection<?>) target).size();
+        } else if ("isEmpty".equals(name)) {
+          return target -> ((Collection<?>) target).isEmpty();
+        }
+      } else if (accessorType == ArrayPropertyAccessor.class) {
+        if ("length".equals(name)) {
+          return Array::getLength;
+        }
+      } else if (accessorType == ObjectPropertyAccessor.class) {
+        return resolveBeanProperty(type);
+      }
+      return FALLBACK;
+    }
+
+    // the signature of invokeExact is polymorphic, which the Java 8 API signature check cannot resolve
+    @UsesJava8
+    private Object invokeGetter(MethodHandle getter, Object target) {
+      try {
+        return (Object) getter.invokeExact(target);
+      } catch (WrongMethodTypeException e) {
+        throw FallbackException.INSTANCE;
+      } catch (Throwable t) {
+        throw new PropertyFailedException(new OgnlException(name, t));
+      }
+    }
+
+    private Navigation resolveMapProperty() {
+      switch (name) {
+        case "size":
+          return target -> ((Map<?, ?>) target).size();
+        case "keys":
+        case "keySet":
+          return target -> ((Map<?, ?>) target).keySet();
+        case "values":
+          return target -> ((Map<?, ?>) target).values();
+        case "isEmpty":
+          return target -> ((Map<?, ?>) target).isEmpty();
+        default:
+          return target -> ((Map<?, ?>) target).get(name);
+      }
+    }
+
+    private Navigation resolveBeanProperty(Class<?> type) {
+      if (!Reflector.canControlMemberAccessible()) {
+        return FALLBACK;
+      }
+      try {
+        OgnlContext context = (OgnlContext) Ognl.createDefaultContext(null, MEMBER_ACCESS, CLASS_RESOLVER, null);
+        Method method = OgnlRuntime.getGetMethod(context, type, name);
+        if (method == null) {
+          method = OgnlRuntime.getReadMethod(type, name, null);
+        }
+        MethodHandle handle;
+        if (method != null) {
+          method.setAccessible(true);
+          handle = MethodHandles.lookup().unreflect(method);
+        } else {
+          Field field = OgnlRuntime.getField(type, name);
+          if (field == null || Modifier.isStatic(field.getModifiers())) {
+            return FALLBACK;
+          }
+          field.setAccessible(true);
+          handle = MethodHandles.lookup().unreflectGetter(field);
+        }
+        // accessors are linked per target class, so the cast to the declaring class cannot fail
+        MethodHandle getter = handle.asType(GETTER_TYPE);
+        return target -> invokeGetter(getter, target);
+      } catch (Exception e) {
+        return FALLBACK;
+      }
+    }
+  }
+
+  private static final class Accessor {
+    private final Class<?> type;
+    private final Navigation navigation;
+
+    private Accessor(Class<?> type, Navigation navigation) {
+      this.type = type;
+      this.navigation = navigation;
+    }
+  }
+
+  /**
+   * Signals that a getter failed. Carries the exception OGNL would report.
+   */
+  private static final class PropertyFailedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private PropertyFailedException(OgnlException cause) {
+      super(null, cause, false, false);
+    }
+  }
+
+  /**
+   * Signals that an evaluation must be done by OGNL.
+   */
+  private static final class FallbackException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private static final FallbackException INSTANCE = new FallbackException();
+
+    private FallbackException() {
+      super(null, null, false, false);
+    }
+  }
+
+}
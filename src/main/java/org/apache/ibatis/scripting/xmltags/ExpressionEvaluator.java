@@ -29,7 +29,22 @@ import org.apache.ibatis.builder.BuilderException;
 public class ExpressionEvaluator {
 
   public boolean evaluateBoolean(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+    return toBoolean(OgnlCache.getValue(expression, parameterObject));
+  }
+
+  boolean evaluateBoolean(String expression, DynamicContext context) {
+    return toBoolean(context.evaluate(expression));
+  }
+
+  public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
+    return toIterable(expression, OgnlCache.getValue(expression, parameterObject));
+  }
+
+  Iterable<?> evaluateIterable(String expression, DynamicContext context) {
+    return toIterable(expression, context.evaluate(expression));
+  }
+
+  private boolean toBoolean(Object value) {
     if (value instanceof Boolean) {
       return (Boolean) value;
     }
@@ -39,8 +54,7 @@ public class ExpressionEvaluator {
     return value != null;
   }
 
-  public Iterable<?> evaluateIterable(String expression, Object parameterObject) {
-    Object value = OgnlCache.getValue(expression, parameterObject);
+  private Iterable<?> toIterable(String expression, Object value) {
     if (value == null) {
       throw new BuilderException("The expression '" + expression + "' evaluated to a null value.");
     }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
@@ -50,11 +52,14 @@ public class ForEachSqlNode implements SqlNode {
 
   @Override
   public boolean apply(DynamicContext context) {
-    Map<String, Object> bindings = context.getBindings();
-    final Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, bindings);
+    final Iterable<?> iterable = evaluator.evaluateIterable(collectionExpression, context);
     if (!iterable.iterator().hasNext()) {
       return true;
     }
+    if (context.isRecordingShape()) {
+      applyRecordingShape(context, iterable);
+      return true;
+    }
     boolean first = true;
     applyOpen(context);
     int i = 0;
@@ -89,6 +94,47 @@ public class ForEachSqlNode implements SqlNode {
     return true;
   }
 
+  private void applyRecordingShape(DynamicContext context, Iterable<?> iterable) {
+    // open, close and separators follow from this node and the recorded contents of its items
+    context.recordShape(this);
+    int i = 0;
+    for (Object o : iterable) {
+      int uniqueNumber = context.recordNextItem();
+      if (o instanceof Map.Entry) {
+        @SuppressWarnings("unchecked")
+        Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) o;
+        applyIndex(context, mapEntry.getKey(), uniqueNumber);
+        applyItem(context, mapEntry.getValue(), uniqueNumber);
+      } else {
+        applyIndex(context, i, uniqueNumber);
+        applyItem(context, o, uniqueNumber);
+      }
+      contents.apply(context);
+      i++;
+    }
+    context.recordEndOfShape();
+    context.getBindings().remove(item);
+    context.getBindings().remove(index);
+  }
+
+  /**
+   * Renders this node from the items recorded for it by a context recording the shape of the statement.
+   */
+  void render(DynamicContext context, RecordedShape shape) {
+    boolean first = true;
+    applyOpen(context);
+    while (shape.nextItem()) {
+      PrefixedContext prefixedContext = new PrefixedContext(context, first || separator == null ? "" : separator);
+      int uniqueNumber = prefixedContext.getUniqueNumber();
+      shape.renderContents(new FilteredDynamicContext(configuration, prefixedContext, index, item, uniqueNumber));
+      if (first) {
+        first = !prefixedContext.isPrefixApplied();
+      }
+    }
+    shape.endOfNode();
+    applyClose(context);
+  }
+
   private void applyIndex(DynamicContext context, Object o, int i) {
     if (index != null) {
       context.bind(index, o);
@@ -161,6 +207,49 @@ public class ForEachSqlNode implements SqlNode {
       delegate.appendSql(parser.parse(sql));
     }
 
+    @Override
+    void appendCompiledSql(String sql, List<CompiledSqlText.Placeholder> placeholders) {
+      if (placeholders.isEmpty()) {
+        delegate.appendCompiledSql(sql, placeholders);
+        return;
+      }
+      List<CompiledSqlText.Placeholder> itemized = new ArrayList<>(placeholders.size());
+      for (CompiledSqlText.Placeholder placeholder : placeholders) {
+        itemized.add(itemize(placeholder));
+      }
+      delegate.appendCompiledSql(sql, itemized);
+    }
+
+    @Override
+    boolean isCompiled() {
+      return delegate.isCompiled();
+    }
+
+    private CompiledSqlText.Placeholder itemize(CompiledSqlText.Placeholder placeholder) {
+      String property = placeholder.getProperty();
+      if (property == null) {
+        return placeholder;
+      }
+      if (item != null && startsWithName(property, item)) {
+        return placeholder.rename(itemizeItem(item, index) + property.substring(item.length()));
+      }
+      if (itemIndex != null && startsWithName(property, itemIndex)) {
+        return placeholder.rename(itemizeItem(itemIndex, index) + property.substring(itemIndex.length()));
+      }
+      return placeholder;
+    }
+
+    private static boolean startsWithName(String property, String name) {
+      if (!property.startsWith(name)) {
+        return false;
+      }
+      if (property.length() == name.length()) {
+        return true;
+      }
+      char next = property.charAt(name.length());
+      return next == '.' || next == ',' || next == ':' || Character.isWhitespace(next);
+    }
+
     @Override
     public int getUniqueNumber() {
       return delegate.getUniqueNumber();
@@ -204,6 +293,20 @@ public class ForEachSqlNode implements SqlNode {
       delegate.appendSql(sql);
     }
 
+    @Override
+    void appendCompiledSql(String sql, List<CompiledSqlText.Placeholder> placeholders) {
+      if (!prefixApplied && sql != null && sql.trim().length() > 0) {
+        delegate.appendSql(prefix);
+        prefixApplied = true;
+      }
+      delegate.appendCompiledSql(sql, placeholders);
+    }
+
+    @Override
+    boolean isCompiled() {
+      return delegate.isCompiled();
+    }
+
     @Override
     public String getSql() {
       return delegate.getSql();
@@ -31,7 +31,7 @@ public class IfSqlNode implements SqlNode {
 
   @Override
   public boolean apply(DynamicContext context) {
-    if (evaluator.evaluateBoolean(test, context.getBindings())) {
+    if (evaluator.evaluateBoolean(test, context)) {
       contents.apply(context);
       return true;
     }
@@ -0,0 +1,82 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.List;
+
+/**
+ * Renders the SQL of a statement from the shape recorded by a context created with
+ * {@link DynamicContext#recordingShape(org.apache.ibatis.session.Configuration, Object)}, without evaluating the
+ * dynamic elements of the statement again.
+ *
+ * @since 3.5.7
+ */
+final class RecordedShape {
+
+  private final List<Object> shape;
+  private int position;
+
+  RecordedShape(List<Object> shape) {
+    this.shape = shape;
+  }
+
+  /**
+   * Renders the recorded contents up to the end of the node or <code>foreach</code> item being rendered, or up to the
+   * end of the shape.
+   */
+  void renderContents(DynamicContext context) {
+    while (position < shape.size()) {
+      Object element = shape.get(position);
+      if (element == DynamicContext.END_OF_NODE || element == DynamicContext.NEXT_ITEM) {
+        return;
+      }
+      position++;
+      if (element == DynamicContext.UNIQUE_NUMBER) {
+        context.getUniqueNumber();
+      } else if (element instanceof StaticTextSqlNode) {
+        ((StaticTextSqlNode) element).apply(context);
+      } else if (element instanceof TrimSqlNode) {
+        ((TrimSqlNode) element).render(context, this);
+      } else if (element instanceof ForEachSqlNode) {
+        ((ForEachSqlNode) element).render(context, this);
+      } else if (!(element instanceof TextSqlNode)) {
+        // the text of a text node is recorded right after it, like the text appended by any other node
+        context.appendSql((String) element);
+      }
+    }
+  }
+
+  /**
+   * Moves past the start of the next item of the <code>foreach</code> being rendered.
+   *
+   * @return false when all of its items have been rendered
+   */
+  boolean nextItem() {
+    if (position < shape.size() && shape.get(position) == DynamicContext.NEXT_ITEM) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Moves past the end of the node being rendered, once its contents have been rendered.
+   */
+  void endOfNode() {
+    position++;
+  }
+
+}
@@ -21,14 +21,22 @@ package org.apache.ibatis.scripting.xmltags;
  */
 public class StaticTextSqlNode implements SqlNode {
   private final String text;
+  private final CompiledSqlText compiledText;
 
   public StaticTextSqlNode(String text) {
     this.text = text;
+    this.compiledText = CompiledSqlText.tryCompile(text);
   }
 
   @Override
   public boolean apply(DynamicContext context) {
-    context.appendSql(text);
+    if (context.isRecordingShape()) {
+      context.recordShape(this);
+    } else if (compiledText != null && context.isCompiled()) {
+      context.appendCompiledSql(compiledText.getSql(), compiledText.getPlaceholders());
+    } else {
+      context.appendSql(text);
+    }
     return true;
   }
 
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2018 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -51,12 +51,28 @@ public class TrimSqlNode implements SqlNode {
 
   @Override
   public boolean apply(DynamicContext context) {
+    if (context.isRecordingShape()) {
+      context.recordShape(this);
+      boolean result = contents.apply(context);
+      context.recordEndOfShape();
+      return result;
+    }
     FilteredDynamicContext filteredDynamicContext = new FilteredDynamicContext(context);
     boolean result = contents.apply(filteredDynamicContext);
     filteredDynamicContext.applyAll();
     return result;
   }
 
+  /**
+   * Renders this node from the contents recorded for it by a context recording the shape of the statement.
+   */
+  void render(DynamicContext context, RecordedShape shape) {
+    FilteredDynamicContext filteredDynamicContext = new FilteredDynamicContext(context);
+    shape.renderContents(filteredDynamicContext);
+    shape.endOfNode();
+    filteredDynamicContext.applyAll();
+  }
+
   private static List<String> parseOverrides(String overrides) {
     if (overrides != null) {
       final StringTokenizer parser = new StringTokenizer(overrides, "|", false);
@@ -74,6 +90,7 @@ public class TrimSqlNode implements SqlNode {
     private boolean prefixApplied;
     private boolean suffixApplied;
     private StringBuilder sqlBuffer;
+    private List<CompiledSqlText.Placeholder> placeholderBuffer;
 
     public FilteredDynamicContext(DynamicContext delegate) {
       super(configuration, null);
@@ -90,7 +107,11 @@ public class TrimSqlNode implements SqlNode {
         applyPrefix(sqlBuffer, trimmedUppercaseSql);
         applySuffix(sqlBuffer, trimmedUppercaseSql);
       }
-      delegate.appendSql(sqlBuffer.toString());
+      if (placeholderBuffer != null) {
+        delegate.appendCompiledSql(sqlBuffer.toString(), placeholderBuffer);
+      } else {
+        delegate.appendSql(sqlBuffer.toString());
+      }
     }
 
     @Override
@@ -110,7 +131,28 @@ public class TrimSqlNode implements SqlNode {
 
     @Override
     public void appendSql(String sql) {
+      if (sql != null && sql.contains("#{") && isCompiled()) {
+        // placeholders must stay in order with the ones buffered around them
+        CompiledSqlText compiledSql = CompiledSqlText.compile(sql);
+        appendCompiledSql(compiledSql.getSql(), compiledSql.getPlaceholders());
+      } else {
+        sqlBuffer.append(sql);
+      }
+    }
+
+    @Override
+    void appendCompiledSql(String sql, List<CompiledSqlText.Placeholder> placeholders) {
       sqlBuffer.append(sql);
+      if (placeholderBuffer == null) {
+        placeholderBuffer = new ArrayList<>(placeholders);
+      } else {
+        placeholderBuffer.addAll(placeholders);
+      }
+    }
+
+    @Override
+    boolean isCompiled() {
+      return delegate.isCompiled();
     }
 
     @Override
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2020 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.session;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -25,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -32,13 +34,18 @@ import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
+import org.apache.ibatis.builder.xml.LazyStatement;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheSerializer;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.ConcurrentLruCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
@@ -53,7 +60,9 @@ import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultMappingPlanCache;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetMetadataCache;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -145,11 +154,23 @@ public class Configuration {
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
   protected boolean shrinkWhitespacesInSql;
+  protected boolean compileDynamicSql;
+  protected int boundSqlCacheSize;
+  protected boolean compileExpressions;
+  protected boolean generateAccessors;
+  protected int resultMappingPlanCacheSize;
+  protected ResultMappingPlanCache resultMappingPlanCache;
+  protected int resultSetMetadataCacheSize;
+  protected ResultSetMetadataCache resultSetMetadataCache;
+  protected boolean parallelMapperParsing;
+  protected String mapperDocumentSnapshot;
+  protected boolean lazyStatementBuilding;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
   protected Class<? extends VFS> vfsImpl;
   protected Class<?> defaultSqlProviderType;
+  protected CacheSerializer cacheSerializer = new JavaCacheSerializer();
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
 
@@ -190,6 +211,12 @@ public class Configuration {
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
       .conflictMessageProducer((savedValue, targetValue) ->
           ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
+  protected final Map<String, LazyStatement> lazyStatements = new StrictMap<LazyStatement>("Mapped Statements collection")
+      .conflictMessageProducer((savedValue, targetValue) ->
+          ". please check " + savedValue.getResource() + " and " + targetValue.getResource());
+  protected final Map<String, MappedStatement> lazilyBuiltStatements = new ConcurrentHashMap<>();
+  // what the lazy statement that the current thread builds has added so far
+  private final ThreadLocal<LazyStatementRegistrations> lazyStatementRegistrations = new ThreadLocal<>();
   protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
   protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
@@ -232,6 +259,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_LRU", ConcurrentLruCache.class);
+    typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -307,6 +336,30 @@ public class Configuration {
     this.defaultSqlProviderType = defaultSqlProviderType;
   }
 
+  /**
+   * Gets the serializer of the read-write caches that do not set one.
+   *
+   * @return the default cache serializer
+   * @since 3.5.7
+   */
+  public CacheSerializer getCacheSerializer() {
+    return cacheSerializer;
+  }
+
+  /**
+   * Sets the serializer of the read-write caches that do not set one.
+   *
+   * @param cacheSerializer
+   *          the default cache serializer, Java serialization when null
+   * @since 3.5.7
+   */
+  public void setCacheSerializer(CacheSerializer cacheSerializer) {
+    if (cacheSerializer == null) {
+      cacheSerializer = new JavaCacheSerializer();
+    }
+    this.cacheSerializer = cacheSerializer;
+  }
+
   public boolean isCallSettersOnNulls() {
     return callSettersOnNulls;
   }
@@ -339,6 +392,233 @@ public class Configuration {
     this.shrinkWhitespacesInSql = shrinkWhitespacesInSql;
   }
 
+  /**
+   * Gets whether dynamic SQL is built from placeholders parsed when the mappers are loaded.
+   *
+   * @return true if dynamic SQL is compiled
+   * @since 3.5.7
+   */
+  public boolean isCompileDynamicSql() {
+    return compileDynamicSql;
+  }
+
+  /**
+   * Sets whether dynamic SQL is built from placeholders parsed when the mappers are loaded instead of parsing the
+   * generated SQL on each call.
+   *
+   * @param compileDynamicSql
+   *          true to compile dynamic SQL
+   * @since 3.5.7
+   */
+  public void setCompileDynamicSql(boolean compileDynamicSql) {
+    this.compileDynamicSql = compileDynamicSql;
+  }
+
+  /**
+   * Gets the number of SQL shapes each dynamic statement caches.
+   *
+   * @return the maximum number of shapes per statement, 0 when the cache is disabled
+   * @since 3.5.7
+   */
+  public int getBoundSqlCacheSize() {
+    return boundSqlCacheSize;
+  }
+
+  /**
+   * Sets the number of SQL shapes each dynamic statement caches. Only statements loaded afterwards are affected.
+   *
+   * @param boundSqlCacheSize
+   *          the maximum number of shapes per statement, 0 to disable the cache
+   * @since 3.5.7
+   */
+  public void setBoundSqlCacheSize(int boundSqlCacheSize) {
+    this.boundSqlCacheSize = boundSqlCacheSize;
+  }
+
+  /**
+   * Gets whether the expressions of dynamic SQL are compiled instead of interpreted by OGNL.
+   *
+   * @return true if the expressions are compiled
+   * @since 3.5.7
+   */
+  public boolean isCompileExpressions() {
+    return compileExpressions;
+  }
+
+  /**
+   * Sets whether the expressions of dynamic SQL are compiled. Expressions the compiler does not support are still
+   * evaluated by OGNL.
+   *
+   * @param compileExpressions
+   *          true to compile the expressions
+   * @since 3.5.7
+   */
+  public void setCompileExpressions(boolean compileExpressions) {
+    this.compileExpressions = compileExpressions;
+  }
+
+  /**
+   * Gets whether getters and setters of beans are called through generated accessors instead of reflection.
+   *
+   * @return true if the accessors are generated
+   * @since 3.5.7
+   */
+  public boolean isGenerateAccessors() {
+    return generateAccessors;
+  }
+
+  /**
+   * Sets whether getters and setters of beans are called through generated accessors. It applies to the
+   * {@link DefaultReflectorFactory}; a custom {@link ReflectorFactory} decides on its own.
+   *
+   * @param generateAccessors
+   *          true to generate the accessors
+   * @since 3.5.7
+   */
+  public void setGenerateAccessors(boolean generateAccessors) {
+    this.generateAccessors = generateAccessors;
+    if (reflectorFactory instanceof DefaultReflectorFactory) {
+      ((DefaultReflectorFactory) reflectorFactory).setGenerateAccessors(generateAccessors);
+    }
+  }
+
+  /**
+   * Gets the number of result mapping plans that are cached.
+   *
+   * @return the maximum number of plans, 0 when the cache is disabled
+   * @since 3.5.7
+   */
+  public int getResultMappingPlanCacheSize() {
+    return resultMappingPlanCacheSize;
+  }
+
+  /**
+   * Sets the number of result mapping plans that are cached. A plan resolves, for a simple result map and a column
+   * layout, the column indexes, type handlers and setters once; the rows are then mapped by column index. Setting it
+   * replaces the cache.
+   *
+   * @param resultMappingPlanCacheSize
+   *          the maximum number of plans, 0 to disable the cache
+   * @since 3.5.7
+   */
+  public void setResultMappingPlanCacheSize(int resultMappingPlanCacheSize) {
+    this.resultMappingPlanCacheSize = resultMappingPlanCacheSize;
+    this.resultMappingPlanCache = resultMappingPlanCacheSize > 0 ? new ResultMappingPlanCache(resultMappingPlanCacheSize) : null;
+  }
+
+  /**
+   * Gets the cache of result mapping plans.
+   *
+   * @return the cache, or <code>null</code> when it is disabled
+   * @since 3.5.7
+   */
+  public ResultMappingPlanCache getResultMappingPlanCache() {
+    return resultMappingPlanCache;
+  }
+
+  /**
+   * Gets the number of result set metadata entries that are cached.
+   *
+   * @return the maximum number of entries, 0 when the cache is disabled
+   * @since 3.5.7
+   */
+  public int getResultSetMetadataCacheSize() {
+    return resultSetMetadataCacheSize;
+  }
+
+  /**
+   * Sets the number of result set metadata entries that are cached. An entry keeps the columns of a result set of a
+   * statement, with their JDBC types, classes and resolved type handlers, for the next executions of the same SQL.
+   * Setting it replaces the cache.
+   *
+   * @param resultSetMetadataCacheSize
+   *          the maximum number of entries, 0 to disable the cache
+   * @since 3.5.7
+   */
+  public void setResultSetMetadataCacheSize(int resultSetMetadataCacheSize) {
+    this.resultSetMetadataCacheSize = resultSetMetadataCacheSize;
+    this.resultSetMetadataCache = resultSetMetadataCacheSize > 0 ? new ResultSetMetadataCache(resultSetMetadataCacheSize) : null;
+  }
+
+  /**
+   * Gets the cache of result set metadata.
+   *
+   * @return the cache, or <code>null</code> when it is disabled
+   * @since 3.5.7
+   */
+  public ResultSetMetadataCache getResultSetMetadataCache() {
+    return resultSetMetadataCache;
+  }
+
+  /**
+   * Gets whether the mapper XML files listed in the configuration are parsed in parallel.
+   *
+   * @return true if they are parsed in parallel
+   * @since 3.5.7
+   */
+  public boolean isParallelMapperParsing() {
+    return parallelMapperParsing;
+  }
+
+  /**
+   * Sets whether the mapper XML files listed in the configuration are parsed in parallel. The documents are read on the
+   * common fork-join pool; their statements, result maps and caches are still registered one mapper at a time, in the
+   * order of the configuration.
+   *
+   * @param parallelMapperParsing
+   *          true to parse them in parallel
+   * @since 3.5.7
+   */
+  public void setParallelMapperParsing(boolean parallelMapperParsing) {
+    this.parallelMapperParsing = parallelMapperParsing;
+  }
+
+  /**
+   * Gets the classpath resource of the snapshot the mapper XML documents are read from.
+   *
+   * @return the resource, or <code>null</code> when the documents are parsed
+   * @since 3.5.7
+   */
+  public String getMapperDocumentSnapshot() {
+    return mapperDocumentSnapshot;
+  }
+
+  /**
+   * Sets the classpath resource of a snapshot written by {@link org.apache.ibatis.builder.xml.MapperDocumentSnapshot}.
+   * The mappers listed by resource or url that are in the snapshot are read from it instead of being parsed.
+   *
+   * @param mapperDocumentSnapshot
+   *          the resource, or <code>null</code> to parse the documents
+   * @since 3.5.7
+   */
+  public void setMapperDocumentSnapshot(String mapperDocumentSnapshot) {
+    this.mapperDocumentSnapshot = mapperDocumentSnapshot;
+  }
+
+  /**
+   * Gets whether the statements of mapper XML files are built on first use.
+   *
+   * @return true if they are built on first use
+   * @since 3.5.7
+   */
+  public boolean isLazyStatementBuilding() {
+    return lazyStatementBuilding;
+  }
+
+  /**
+   * Sets whether the statements of mapper XML files are built on first use. The mappers only register their statement
+   * elements; the SQL source, key generators, inline result maps and parameter map of a statement are built once, the
+   * first time {@link #getMappedStatement(String)} asks for it. Errors in a statement are then reported on its first
+   * use instead of while the configuration is built.
+   *
+   * @param lazyStatementBuilding
+   *          true to build the statements on first use
+   * @since 3.5.7
+   */
+  public void setLazyStatementBuilding(boolean lazyStatementBuilding) {
+    this.lazyStatementBuilding = lazyStatementBuilding;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -609,6 +889,9 @@ public class Configuration {
 
   public void setReflectorFactory(ReflectorFactory reflectorFactory) {
     this.reflectorFactory = reflectorFactory;
+    if (generateAccessors && reflectorFactory instanceof DefaultReflectorFactory) {
+      ((DefaultReflectorFactory) reflectorFactory).setGenerateAccessors(true);
+    }
   }
 
   public ObjectFactory getObjectFactory() {
@@ -734,6 +1017,10 @@ public class Configuration {
 
   public void addKeyGenerator(String id, KeyGenerator keyGenerator) {
     keyGenerators.put(id, keyGenerator);
+    LazyStatementRegistrations registrations = lazyStatementRegistrations.get();
+    if (registrations != null) {
+      registrations.keyGenerators.put(id, keyGenerator);
+    }
   }
 
   public Collection<String> getKeyGeneratorNames() {
@@ -815,17 +1102,76 @@ public class Configuration {
   }
 
   public void addMappedStatement(MappedStatement ms) {
+    LazyStatementRegistrations registrations = lazyStatementRegistrations.get();
+    if (registrations != null) {
+      // built by buildLazyStatement, while other threads may be reading mappedStatements
+      MappedStatement previous = lazilyBuiltStatements.putIfAbsent(ms.getId(), ms);
+      if (previous != null) {
+        throw new IllegalArgumentException("Mapped Statements collection already contains value for " + ms.getId()
+            + ". please check " + previous.getResource() + " and " + ms.getResource());
+      }
+      registrations.statements.add(ms);
+      return;
+    }
+    if (lazyStatements.containsKey(ms.getId())) {
+      throw new IllegalArgumentException("Mapped Statements collection already contains value for " + ms.getId()
+          + ". please check " + lazyStatements.get(ms.getId()).getResource() + " and " + ms.getResource());
+    }
     mappedStatements.put(ms.getId(), ms);
   }
 
+  /**
+   * Adds a statement of a mapper XML file that is built on first use.
+   *
+   * @param statement
+   *          the statement
+   * @since 3.5.7
+   * @see #setLazyStatementBuilding(boolean)
+   */
+  public void addLazyStatement(LazyStatement statement) {
+    if (mappedStatements.containsKey(statement.getId())) {
+      throw new IllegalArgumentException("Mapped Statements collection already contains value for " + statement.getId()
+          + ". please check " + mappedStatements.get(statement.getId()).getResource() + " and " + statement.getResource());
+    }
+    lazyStatements.put(statement.getId(), statement);
+  }
+
+  /**
+   * Returns the statement of a mapper XML file that is built on first use, whether or not it is built yet.
+   *
+   * @param id
+   *          the full id of the statement
+   * @return the statement, or <code>null</code> if no such statement was added
+   * @since 3.5.7
+   */
+  public LazyStatement getLazyStatement(String id) {
+    return lazyStatements.containsKey(id) ? lazyStatements.get(id) : null;
+  }
+
   public Collection<String> getMappedStatementNames() {
     buildAllStatements();
-    return mappedStatements.keySet();
+    if (lazyStatements.isEmpty()) {
+      return mappedStatements.keySet();
+    }
+    Set<String> names = new HashSet<>(mappedStatements.keySet());
+    names.addAll(lazyStatements.keySet());
+    names.addAll(lazilyBuiltStatements.keySet());
+    return names;
   }
 
   public Collection<MappedStatement> getMappedStatements() {
     buildAllStatements();
-    return mappedStatements.values();
+    if (lazyStatements.isEmpty()) {
+      return mappedStatements.values();
+    }
+    for (Object statement : lazyStatements.values().toArray()) {
+      if (statement instanceof LazyStatement) {
+        buildLazyStatement((LazyStatement) statement);
+      }
+    }
+    List<MappedStatement> statements = new ArrayList<>(mappedStatements.values());
+    statements.addAll(lazilyBuiltStatements.values());
+    return statements;
   }
 
   public Collection<XMLStatementBuilder> getIncompleteStatements() {
@@ -868,7 +1214,55 @@ public class Configuration {
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
-    return mappedStatements.get(id);
+    if (lazyStatements.isEmpty() || mappedStatements.containsKey(id)) {
+      return mappedStatements.get(id);
+    }
+    MappedStatement statement = lazilyBuiltStatements.get(id);
+    if (statement != null) {
+      return statement;
+    }
+    if (!lazyStatements.containsKey(id)) {
+      return mappedStatements.get(id);
+    }
+    return buildLazyStatement(lazyStatements.get(id));
+  }
+
+  private MappedStatement buildLazyStatement(LazyStatement lazyStatement) {
+    MappedStatement statement = lazilyBuiltStatements.get(lazyStatement.getId());
+    if (statement == null) {
+      synchronized (lazyStatements) {
+        LazyStatementRegistrations previous = lazyStatementRegistrations.get();
+        LazyStatementRegistrations registrations = new LazyStatementRegistrations();
+        lazyStatementRegistrations.set(registrations);
+        try {
+          lazyStatement.build();
+        } catch (RuntimeException | Error e) {
+          // so that building it again reports the same error rather than its select keys being already added
+          removeLazyStatementRegistrations(registrations);
+          throw e;
+        } finally {
+          if (previous == null) {
+            lazyStatementRegistrations.remove();
+          } else {
+            lazyStatementRegistrations.set(previous);
+          }
+        }
+        statement = lazilyBuiltStatements.get(lazyStatement.getId());
+      }
+    }
+    return statement;
+  }
+
+  private void removeLazyStatementRegistrations(LazyStatementRegistrations registrations) {
+    for (MappedStatement statement : registrations.statements) {
+      lazilyBuiltStatements.remove(statement.getId(), statement);
+    }
+    for (Map.Entry<String, KeyGenerator> entry : registrations.keyGenerators.entrySet()) {
+      String id = entry.getKey();
+      keyGenerators.remove(id);
+      // StrictMap also added it by its short name, unless that was ambiguous
+      keyGenerators.remove(id.substring(id.lastIndexOf('.') + 1), entry.getValue());
+    }
   }
 
   public Map<String, XNode> getSqlFragments() {
@@ -907,7 +1301,8 @@ public class Configuration {
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
-    return mappedStatements.containsKey(statementName);
+    return mappedStatements.containsKey(statementName) || lazyStatements.containsKey(statementName)
+        || lazilyBuiltStatements.containsKey(statementName);
   }
 
   public void addCacheRef(String namespace, String referencedNamespace) {
@@ -1017,6 +1412,11 @@ public class Configuration {
     }
   }
 
+  private static class LazyStatementRegistrations {
+    private final List<MappedStatement> statements = new ArrayList<>();
+    private final Map<String, KeyGenerator> keyGenerators = new HashMap<>();
+  }
+
   protected static class StrictMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -4950446264854982944L;
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.autoconstructor;
 
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -71,6 +72,15 @@ class AutoConstructorTest {
     }
   }
 
+  @Test
+  void annotatedSubjectValuesAreReadForEachRow() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      final AutoConstructorMapper mapper = sqlSession.getMapper(AutoConstructorMapper.class);
+      Assertions.assertThat(mapper.getAnnotatedSubjects()).extracting("id", "name", "height", "weight")
+          .containsExactly(tuple(1, "a", 100, 45), tuple(2, "b", 0, 45), tuple(2, "c", 0, 0));
+    }
+  }
+
   @Test
   void badSubject() {
     try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
@@ -37,6 +37,8 @@ import java.util.Properties;
 import org.apache.ibatis.builder.mapper.CustomMapper;
 import org.apache.ibatis.builder.typehandler.CustomIntegerTypeHandler;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
+import org.apache.ibatis.cache.serializer.ReflectorCacheSerializer;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
@@ -101,7 +103,19 @@ class XmlConfigBuilderTest {
       assertNull(config.getConfigurationFactory());
       assertThat(config.getTypeHandlerRegistry().getTypeHandler(RoundingMode.class)).isInstanceOf(EnumTypeHandler.class);
       assertThat(config.isShrinkWhitespacesInSql()).isFalse();
+      assertThat(config.isCompileDynamicSql()).isFalse();
+      assertThat(config.getBoundSqlCacheSize()).isZero();
+      assertThat(config.isCompileExpressions()).isFalse();
+      assertThat(config.isGenerateAccessors()).isFalse();
+      assertThat(config.getResultMappingPlanCacheSize()).isZero();
+      assertThat(config.getResultMappingPlanCache()).isNull();
+      assertThat(config.getResultSetMetadataCacheSize()).isZero();
+      assertThat(config.getResultSetMetadataCache()).isNull();
+      assertThat(config.isParallelMapperParsing()).isFalse();
+      assertThat(config.getMapperDocumentSnapshot()).isNull();
+      assertThat(config.isLazyStatementBuilding()).isFalse();
       assertThat(config.getDefaultSqlProviderType()).isNull();
+      assertThat(config.getCacheSerializer()).isInstanceOf(JavaCacheSerializer.class);
     }
   }
 
@@ -197,7 +211,18 @@ class XmlConfigBuilderTest {
       assertThat(config.getVfsImpl().getName()).isEqualTo(JBoss6VFS.class.getName());
       assertThat(config.getConfigurationFactory().getName()).isEqualTo(String.class.getName());
       assertThat(config.isShrinkWhitespacesInSql()).isTrue();
+      assertThat(config.isCompileDynamicSql()).isTrue();
+      assertThat(config.getBoundSqlCacheSize()).isEqualTo(64);
+      assertThat(config.isCompileExpressions()).isTrue();
+      assertThat(config.isGenerateAccessors()).isTrue();
+      assertThat(config.getResultMappingPlanCacheSize()).isEqualTo(256);
+      assertThat(config.getResultMappingPlanCache().getMaxSize()).isEqualTo(256);
+      assertThat(config.getResultSetMetadataCacheSize()).isEqualTo(512);
+      assertThat(config.getResultSetMetadataCache().getMaxSize()).isEqualTo(512);
+      assertThat(config.isParallelMapperParsing()).isTrue();
+      assertThat(config.isLazyStatementBuilding()).isTrue();
       assertThat(config.getDefaultSqlProviderType().getName()).isEqualTo(MySqlProvider.class.getName());
+      assertThat(config.getCacheSerializer()).isInstanceOf(ReflectorCacheSerializer.class);
 
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blogauthor")).isEqualTo(Author.class);
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blog")).isEqualTo(Blog.class);
@@ -306,6 +331,49 @@ class XmlConfigBuilderTest {
       .hasMessageContaining("The properties element cannot specify both a URL and a resource based property file reference.  Please specify one or the other.");
   }
 
+  @Test
+  void parallelMapperParsingRegistersTheSameStatements() {
+    final String mappers = "  <mappers>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/BlogMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/CachedAuthorMapper.xml\"/>\n"
+        + "    <mapper url=\"file:./src/test/java/org/apache/ibatis/builder/PostMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/NestedBlogMapper.xml\"/>\n"
+        + "  </mappers>\n";
+    Configuration sequential = new XMLConfigBuilder(new StringReader(mapperConfig(false, mappers))).parse();
+    Configuration parallel = new XMLConfigBuilder(new StringReader(mapperConfig(true, mappers))).parse();
+    // the names are keys of hash maps, which iterate colliding keys in insertion order, so an identical iteration
+    // order means that the mappers were applied in the same order
+    assertThat(parallel.getMappedStatementNames()).containsExactlyElementsOf(sequential.getMappedStatementNames());
+    assertThat(parallel.getResultMapNames()).containsExactlyElementsOf(sequential.getResultMapNames());
+    assertThat(parallel.getCacheNames()).containsExactlyElementsOf(sequential.getCacheNames());
+  }
+
+  @Test
+  void parallelMapperParsingReportsMissingResourceAsSequentialParsing() {
+    final String mappers = "  <mappers>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/NoSuchMapper.xml\"/>\n"
+        + "  </mappers>\n";
+    when(new XMLConfigBuilder(new StringReader(mapperConfig(true, mappers)))::parse);
+    then(caughtException()).isInstanceOf(BuilderException.class)
+      .hasMessageContaining("Could not find resource org/apache/ibatis/builder/NoSuchMapper.xml");
+  }
+
+  private static String mapperConfig(boolean parallelMapperParsing, String mappers) {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <settings>\n"
+        + "    <setting name=\"parallelMapperParsing\" value=\"" + parallelMapperParsing + "\"/>\n"
+        + "  </settings>\n"
+        + "  <typeAliases>\n"
+        + "    <package name=\"org.apache.ibatis.domain.blog\"/>\n"
+        + "  </typeAliases>\n"
+        + mappers
+        + "</configuration>\n";
+  }
+
   static class MySqlProvider {
     @SuppressWarnings("unused")
     public static String provideSql() {
@@ -20,9 +20,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.BDDAssertions.then;
 
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Properties;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
@@ -164,6 +168,19 @@ class XmlMapperBuilderTest {
       .hasMessage("The mapper element requires a namespace attribute to be specified.");
   }
 
+  @Test
+  void useNewCacheWithSerializerProperty() {
+    Configuration configuration = new Configuration();
+    MapperBuilderAssistant builder = new MapperBuilderAssistant(configuration, "resource");
+    builder.setCurrentNamespace("namespace");
+    Properties props = new Properties();
+    props.setProperty("serializer", RecordingCacheSerializer.class.getName());
+    Cache cache = builder.useNewCache(null, null, null, null, true, false, props);
+    cache.putObject("key", "value");
+    assertThat(cache.getObject("key")).isEqualTo("value");
+    assertThat(RecordingCacheSerializer.deserialized).isEqualTo("value");
+  }
+
   @Test
   void useCacheRefNamespaceIsNull() {
     MapperBuilderAssistant builder = new MapperBuilderAssistant(new Configuration(), "resource");
@@ -221,4 +238,16 @@ class XmlMapperBuilderTest {
        assertThat(exception.getMessage()).isEqualTo(message);
      }
    }
+
+  public static class RecordingCacheSerializer extends JavaCacheSerializer {
+
+    private static Serializable deserialized;
+
+    @Override
+    public Serializable deserialize(byte[] bytes) {
+      deserialized = super.deserialize(bytes);
+      return deserialized;
+    }
+  }
+
 }
@@ -0,0 +1,196 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+class LazyStatementTest {
+
+  private static final String AUTHOR_MAPPER = "org/apache/ibatis/builder/AuthorMapper.xml";
+  private static final String AUTHOR_NAMESPACE = "org.apache.ibatis.domain.blog.mappers.AuthorMapper";
+
+  @Test
+  void shouldBuildTheSameStatementsOnFirstUse() throws Exception {
+    Configuration eager = new Configuration();
+    parseResource(eager, AUTHOR_MAPPER);
+    Configuration lazy = new Configuration();
+    lazy.setLazyStatementBuilding(true);
+    parseResource(lazy, AUTHOR_MAPPER);
+
+    assertThat(lazy.getLazyStatement(AUTHOR_NAMESPACE + ".selectAuthor")).isNotNull();
+    assertThat(lazy.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(eager.getMappedStatementNames());
+    for (String id : eager.getMappedStatementNames()) {
+      if (!id.contains(".")) {
+        continue;
+      }
+      MappedStatement expected = eager.getMappedStatement(id);
+      MappedStatement actual = lazy.getMappedStatement(id);
+      assertThat(actual.getId()).isEqualTo(expected.getId());
+      assertThat(actual.getResource()).isEqualTo(expected.getResource());
+      assertThat(actual.getSqlCommandType()).isEqualTo(expected.getSqlCommandType());
+      assertThat(actual.getParameterMap().getId()).isEqualTo(expected.getParameterMap().getId());
+      assertThat(actual.getResultMaps()).extracting(ResultMap::getId)
+          .containsExactlyElementsOf(expected.getResultMaps().stream().map(ResultMap::getId).collect(Collectors.toList()));
+      assertThat(actual.getKeyGenerator()).isSameAs(expected.getKeyGenerator());
+      assertThat(lazy.getMappedStatement(id)).isSameAs(actual);
+    }
+  }
+
+  @Test
+  void shouldSelectStatementsAndSelectKeysOfTheDatabaseId() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    configuration.setDatabaseId("hsql");
+    parse(configuration, "<select id=\"a\" databaseId=\"hsql\" resultType=\"int\">select 1</select>"
+        + "<select id=\"a\" resultType=\"int\">select 2</select>"
+        + "<select id=\"b\" databaseId=\"db2\" resultType=\"int\">select 3</select>"
+        + "<select id=\"b\" resultType=\"int\">select 4</select>"
+        + "<insert id=\"c\">"
+        + "<selectKey keyProperty=\"id\" resultType=\"int\" databaseId=\"hsql\">select 5</selectKey>"
+        + "<selectKey keyProperty=\"id\" resultType=\"int\">select 6</selectKey>"
+        + "insert into t values (#{id})</insert>");
+
+    assertThat(configuration.getMappedStatement("lazy.a").getDatabaseId()).isEqualTo("hsql");
+    assertThat(configuration.getMappedStatement("lazy.b").getDatabaseId()).isNull();
+    assertThat(configuration.hasStatement("lazy.c!selectKey")).isFalse();
+    MappedStatement insert = configuration.getMappedStatement("c");
+    assertThat(insert.getKeyGenerator()).isInstanceOf(SelectKeyGenerator.class);
+    assertThat(configuration.getMappedStatement("lazy.c!selectKey").getDatabaseId()).isEqualTo("hsql");
+  }
+
+  @Test
+  void shouldReportDuplicateStatementsWhenParsing() {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    assertThatThrownBy(() -> parse(configuration, "<select id=\"a\" resultType=\"int\">select 1</select>"
+        + "<select id=\"a\" resultType=\"int\">select 2</select>"))
+        .isInstanceOf(BuilderException.class)
+        .hasMessageContaining("Mapped Statements collection already contains value for lazy.a");
+  }
+
+  @Test
+  void shouldReportInvalidStatementsOnFirstUse() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    parse(configuration, "<select id=\"a\" resultMap=\"missing\">select 1</select>");
+
+    assertThat(configuration.hasStatement("lazy.a")).isTrue();
+    assertThatThrownBy(() -> configuration.getMappedStatement("lazy.a"))
+        .isInstanceOf(BuilderException.class)
+        .hasMessageContaining("Error building the statement 'lazy.a' of Mapper XML 'lazy.xml'")
+        .hasMessageContaining("lazy.missing");
+  }
+
+  @Test
+  void shouldBuildStatementsAgainAfterAFailedBuild() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    parse(configuration, "<sql id=\"columns\">id</sql>"
+        + "<insert id=\"a\" parameterMap=\"missing\">"
+        + "<selectKey keyProperty=\"id\" resultType=\"int\">select 1</selectKey>"
+        + "insert into t (<include refid=\"columns\"/>) values (#{id})</insert>");
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> configuration.getMappedStatement("lazy.a"))
+          .isInstanceOf(BuilderException.class)
+          .hasMessageContaining("lazy.missing");
+      assertThat(configuration.hasKeyGenerator("lazy.a!selectKey")).isFalse();
+    }
+
+    configuration.addParameterMap(new ParameterMap.Builder(configuration, "lazy.missing", Author.class, new ArrayList<>()).build());
+    MappedStatement insert = configuration.getMappedStatement("lazy.a");
+    assertThat(insert.getKeyGenerator()).isInstanceOf(SelectKeyGenerator.class);
+    assertThat(insert.getBoundSql(null).getSql()).isEqualTo("insert into t ( id ) values (?)");
+    assertThat(configuration.getMappedStatement("lazy.a!selectKey").getBoundSql(null).getSql()).isEqualTo("select 1");
+  }
+
+  @Test
+  void shouldBuildEachStatementOnceAcrossThreads() throws Exception {
+    Configuration configuration = new Configuration();
+    configuration.setLazyStatementBuilding(true);
+    parseResource(configuration, AUTHOR_MAPPER);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Callable<MappedStatement>> tasks = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        tasks.add(() -> configuration.getMappedStatement("selectAuthorWithInlineParams"));
+      }
+      MappedStatement first = configuration.getMappedStatement(AUTHOR_NAMESPACE + ".selectAuthorWithInlineParams");
+      for (Future<MappedStatement> future : executor.invokeAll(tasks)) {
+        assertThat(future.get()).isSameAs(first);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldExecuteLazilyBuiltStatements() throws Exception {
+    Configuration configuration = new Configuration(
+        new Environment("test", new JdbcTransactionFactory(), BaseDataTest.createBlogDataSource()));
+    configuration.setLazyStatementBuilding(true);
+    parseResource(configuration, AUTHOR_MAPPER);
+
+    try (SqlSession sqlSession = new DefaultSqlSessionFactory(configuration).openSession()) {
+      Author author = sqlSession.selectOne("selectAuthorWithInlineParams", 101);
+      assertThat(author.getUsername()).isEqualTo("jim");
+    }
+  }
+
+  private static void parseResource(Configuration configuration, String resource) throws Exception {
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+    }
+  }
+
+  private static void parse(Configuration configuration, String statements) throws Exception {
+    String mapper = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + "<mapper namespace=\"lazy\">" + statements + "</mapper>";
+    try (InputStream inputStream = new ByteArrayInputStream(mapper.getBytes(StandardCharsets.UTF_8))) {
+      new XMLMapperBuilder(inputStream, configuration, "lazy.xml", configuration.getSqlFragments()).parse();
+    }
+  }
+
+}
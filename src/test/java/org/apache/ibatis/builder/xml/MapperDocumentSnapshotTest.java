@@ -0,0 +1,171 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+
+class MapperDocumentSnapshotTest {
+
+  private static final String AUTHOR_MAPPER = "org/apache/ibatis/builder/AuthorMapper.xml";
+
+  @Test
+  void shouldBuildTheSameStatementsFromSnapshotDocuments() throws Exception {
+    Map<String, byte[]> mappers = readMappers();
+    MapperDocumentSnapshot snapshot = roundTrip(mappers);
+    assertThat(snapshot.getLocations()).contains(AUTHOR_MAPPER, "org/apache/ibatis/builder/BlogMapper.xml",
+        "org/apache/ibatis/builder/NestedBlogMapper.xml");
+
+    for (String location : snapshot.getLocations()) {
+      Configuration parsed = newConfiguration();
+      try (InputStream inputStream = Resources.getResourceAsStream(location)) {
+        new XMLMapperBuilder(inputStream, parsed, location, parsed.getSqlFragments()).parse();
+      }
+      Configuration fromSnapshot = newConfiguration();
+      XPathParser parser = new XPathParser(snapshot.getDocument(location, mappers.get(location)), true, fromSnapshot.getVariables(),
+          new XMLMapperEntityResolver());
+      new XMLMapperBuilder(parser, fromSnapshot, location, fromSnapshot.getSqlFragments()).parse();
+
+      assertThat(fromSnapshot.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(parsed.getMappedStatementNames());
+      assertThat(fromSnapshot.getResultMapNames()).containsExactlyInAnyOrderElementsOf(parsed.getResultMapNames());
+      assertThat(fromSnapshot.getParameterMapNames()).containsExactlyInAnyOrderElementsOf(parsed.getParameterMapNames());
+    }
+  }
+
+  @Test
+  void shouldReadDocumentsFromSeveralThreads() throws Exception {
+    Map<String, byte[]> mappers = readMappers();
+    MapperDocumentSnapshot snapshot = roundTrip(mappers);
+    Map<String, Document> expected = new HashMap<>();
+    for (Map.Entry<String, byte[]> mapper : mappers.entrySet()) {
+      expected.put(mapper.getKey(), snapshot.getDocument(mapper.getKey(), mapper.getValue()));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Boolean>> tasks = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        for (Map.Entry<String, byte[]> mapper : mappers.entrySet()) {
+          tasks.add(() -> snapshot.getDocument(mapper.getKey(), mapper.getValue()).isEqualNode(expected.get(mapper.getKey())));
+        }
+      }
+      for (Future<Boolean> future : executor.invokeAll(tasks)) {
+        assertThat(future.get()).isTrue();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldNotReadChangedMappersFromTheSnapshot() throws Exception {
+    Map<String, byte[]> mappers = readMappers();
+    MapperDocumentSnapshot snapshot = roundTrip(mappers);
+    byte[] contents = mappers.get(AUTHOR_MAPPER);
+    assertThat(snapshot.getDocument(AUTHOR_MAPPER, contents)).isNotNull();
+    byte[] changed = Arrays.copyOf(contents, contents.length);
+    changed[changed.length - 2] = ' ';
+    assertThat(snapshot.getDocument(AUTHOR_MAPPER, changed)).isNull();
+    assertThat(snapshot.getDocument(AUTHOR_MAPPER, Arrays.copyOf(contents, contents.length + 1))).isNull();
+    assertThat(snapshot.getDocument("org/apache/ibatis/builder/MissingMapper.xml", contents)).isNull();
+  }
+
+  @Test
+  void shouldParseMappersThatChangedSinceTheSnapshotWasWritten(@TempDir Path directory) throws Exception {
+    byte[] contents = readMappers().get(AUTHOR_MAPPER);
+    Path mapper = directory.resolve("AuthorMapper.xml");
+    String location = mapper.toUri().toString();
+    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      MapperDocumentSnapshot.write(out, Collections.singletonMap(location, contents));
+      Files.write(directory.resolve("mappers.snapshot"), out.toByteArray());
+    }
+    final String config = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <settings>\n"
+        + "    <setting name=\"mapperDocumentSnapshot\" value=\"mappers.snapshot\"/>\n"
+        + "  </settings>\n"
+        + "  <mappers>\n"
+        + "    <mapper url=\"" + location + "\"/>\n"
+        + "  </mappers>\n"
+        + "</configuration>\n";
+    final String statementId = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthor";
+
+    ClassLoader defaultClassLoader = Resources.getDefaultClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, getClass().getClassLoader())) {
+      Resources.setDefaultClassLoader(classLoader);
+      Files.write(mapper, contents);
+      Configuration configuration = new XMLConfigBuilder(new StringReader(config)).parse();
+      assertThat(configuration.getMapperDocumentSnapshot()).isEqualTo("mappers.snapshot");
+      assertThat(configuration.getMappedStatement(statementId).getBoundSql(null).getSql())
+          .contains("from author where id = ?");
+
+      Files.write(mapper, new String(contents, StandardCharsets.UTF_8)
+          .replaceFirst("from author where id = \\?", "from author where id = ? and 1 = 1")
+          .getBytes(StandardCharsets.UTF_8));
+      configuration = new XMLConfigBuilder(new StringReader(config)).parse();
+      assertThat(configuration.getMappedStatement(statementId).getBoundSql(null).getSql())
+          .contains("from author where id = ? and 1 = 1");
+    } finally {
+      Resources.setDefaultClassLoader(defaultClassLoader);
+    }
+  }
+
+  private static Map<String, byte[]> readMappers() throws Exception {
+    try (InputStream inputStream = Resources.getResourceAsStream("org/apache/ibatis/builder/MapperConfig.xml")) {
+      return MapperDocumentSnapshot.readMappers(new XPathParser(inputStream, true, null, new XMLMapperEntityResolver()));
+    }
+  }
+
+  private static MapperDocumentSnapshot roundTrip(Map<String, byte[]> mappers) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MapperDocumentSnapshot.write(out, mappers);
+    return MapperDocumentSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  private static Configuration newConfiguration() {
+    Configuration configuration = new Configuration();
+    configuration.getTypeAliasRegistry().registerAliases("org.apache.ibatis.domain.blog");
+    return configuration;
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2019 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -22,13 +22,16 @@ import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.scripting.xmltags.ChooseSqlNode;
 import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
 import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
@@ -36,7 +39,10 @@ import org.apache.ibatis.scripting.xmltags.IfSqlNode;
 import org.apache.ibatis.scripting.xmltags.MixedSqlNode;
 import org.apache.ibatis.scripting.xmltags.SetSqlNode;
 import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.scripting.xmltags.StaticTextSqlNode;
 import org.apache.ibatis.scripting.xmltags.TextSqlNode;
+import org.apache.ibatis.scripting.xmltags.TrimSqlNode;
+import org.apache.ibatis.scripting.xmltags.VarDeclSqlNode;
 import org.apache.ibatis.scripting.xmltags.WhereSqlNode;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -376,14 +382,191 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldBuildSameSqlWhenCompiled() throws Exception {
+    final Map<String, Object> parameterObject = new HashMap<>();
+    parameterObject.put("id", 1);
+    parameterObject.put("ids", Arrays.asList(1, 2, 3));
+    parameterObject.put("names", new String[] {"a", "b"});
+    Configuration configuration = createConfiguration();
+    DynamicSqlSource source = new DynamicSqlSource(configuration, mixedContents(
+        new StaticTextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new IfSqlNode(mixedContents(new StaticTextSqlNode("and ID = #{id}")), "id != null"),
+            new TextSqlNode("and TITLE = #{title,jdbcType=VARCHAR} and ${id} = #{id}"),
+            new ForEachSqlNode(new Configuration(), mixedContents(new StaticTextSqlNode("#{item} + #{index, javaType=int} + #{id}")),
+                "ids", "index", "item", "and ID in (", ")", ","),
+            new ForEachSqlNode(new Configuration(), mixedContents(new StaticTextSqlNode("#{name}")),
+                "names", null, "name", "or NAME in (", ")", ",")))));
+
+    BoundSql interpreted = source.getBoundSql(parameterObject);
+    configuration.setCompileDynamicSql(true);
+    BoundSql compiled = source.getBoundSql(parameterObject);
+    BoundSql compiledAgain = source.getBoundSql(parameterObject);
+    configuration.setCompileDynamicSql(false);
+
+    assertEquals("SELECT * FROM BLOG WHERE  ID = ?and TITLE = ? and 1 = ?and ID in (? + ? + ?,? + ? + ?,? + ? + ?)"
+        + "or NAME in (?,?)", compiled.getSql());
+    assertSameBoundSql(interpreted, compiled);
+    assertSameBoundSql(interpreted, compiledAgain);
+    assertEquals("__frch_item_0", compiled.getParameterMappings().get(3).getProperty());
+    assertEquals("__frch_index_0", compiled.getParameterMappings().get(4).getProperty());
+    assertEquals("id", compiled.getParameterMappings().get(5).getProperty());
+    assertEquals("__frch_name_4", compiled.getParameterMappings().get(13).getProperty());
+  }
+
+  @Test
+  void shouldReportInvalidPlaceholderWhenCompiledStatementIsExecuted() throws Exception {
+    Configuration configuration = createConfiguration();
+    configuration.setCompileDynamicSql(true);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, new StaticTextSqlNode("SELECT * FROM BLOG WHERE ID = #{id,foo=bar}"));
+    Assertions.assertThrows(BuilderException.class, () -> source.getBoundSql(new HashMap<>()));
+  }
+
+  @Test
+  void shouldReuseSqlOfKnownShapes() throws Exception {
+    Configuration configuration = createConfiguration();
+    SqlNode rootSqlNode = mixedContents(
+        new StaticTextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new IfSqlNode(mixedContents(new StaticTextSqlNode("and ID = #{id}")), "id != null"),
+            new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("#{item} + ${item}")),
+                "ids", null, "item", "and ID in (", ")", ","))));
+    DynamicSqlSource uncached = new DynamicSqlSource(configuration, rootSqlNode);
+    configuration.setBoundSqlCacheSize(2);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, rootSqlNode);
+    configuration.setBoundSqlCacheSize(0);
+    assertEquals(null, uncached.getBoundSqlCache());
+
+    Map<String, Object> first = new HashMap<>();
+    first.put("id", 1);
+    first.put("ids", Arrays.asList(1, 2));
+    Map<String, Object> sameShape = new HashMap<>();
+    sameShape.put("id", 2);
+    sameShape.put("ids", Arrays.asList(1, 2));
+    Map<String, Object> otherShape = new HashMap<>();
+    otherShape.put("ids", Arrays.asList(1, 2, 3));
+    Map<String, Object> otherText = new HashMap<>();
+    otherText.put("ids", Arrays.asList(3, 4));
+
+    assertSameBoundSql(uncached.getBoundSql(first), source.getBoundSql(first));
+    assertSameBoundSql(uncached.getBoundSql(sameShape), source.getBoundSql(sameShape));
+    assertSameBoundSql(uncached.getBoundSql(otherShape), source.getBoundSql(otherShape));
+    assertSameBoundSql(uncached.getBoundSql(otherText), source.getBoundSql(otherText));
+    assertSameBoundSql(uncached.getBoundSql(otherShape), source.getBoundSql(otherShape));
+    BoundSql boundSql = source.getBoundSql(sameShape);
+    assertEquals(sameShape, boundSql.getAdditionalParameter("_parameter"));
+    assertEquals(2, boundSql.getAdditionalParameter("__frch_item_1"));
+
+    assertEquals(3, source.getBoundSqlCache().getHits());
+    assertEquals(3, source.getBoundSqlCache().getMisses());
+    assertEquals(2, source.getBoundSqlCache().getSize());
+  }
+
+  @Test
+  void shouldNotShareSqlOfShapesWithTheSameContentsInOtherElements() throws Exception {
+    Configuration configuration = createConfiguration();
+    SqlNode foreachNodes = mixedContents(
+        new StaticTextSqlNode("SELECT * FROM BLOG WHERE"),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("${i}")), "a", null, "i", "A(", ")", null),
+        new ForEachSqlNode(new Configuration(), mixedContents(new TextSqlNode("${i}")), "b", null, "i", "B(", ")", null));
+    StaticTextSqlNode trimmed = new StaticTextSqlNode("z");
+    SqlNode trimNodes = mixedContents(
+        new StaticTextSqlNode("SELECT * FROM BLOG WHERE"),
+        new IfSqlNode(new TrimSqlNode(new Configuration(), trimmed, "C(", null, ")", null), "a.size() > 0"),
+        new IfSqlNode(new TrimSqlNode(new Configuration(), trimmed, "D(", null, ")", null), "b.size() > 0"));
+
+    Map<String, Object> first = new HashMap<>();
+    first.put("a", new ArrayList<>(Collections.singletonList("x")));
+    first.put("b", new ArrayList<>());
+    Map<String, Object> second = new HashMap<>();
+    second.put("a", new ArrayList<>());
+    second.put("b", new ArrayList<>(Collections.singletonList("x")));
+
+    for (SqlNode rootSqlNode : Arrays.asList(foreachNodes, trimNodes)) {
+      DynamicSqlSource uncached = new DynamicSqlSource(configuration, rootSqlNode);
+      configuration.setBoundSqlCacheSize(16);
+      DynamicSqlSource source = new DynamicSqlSource(configuration, rootSqlNode);
+      configuration.setBoundSqlCacheSize(0);
+
+      assertSameBoundSql(uncached.getBoundSql(first), source.getBoundSql(first));
+      assertSameBoundSql(uncached.getBoundSql(second), source.getBoundSql(second));
+      assertEquals(2, source.getBoundSqlCache().getSize());
+    }
+    assertEquals("SELECT * FROM BLOG WHERE B(  x )", new DynamicSqlSource(configuration, foreachNodes).getBoundSql(second).getSql());
+  }
+
+  @Test
+  void shouldEvaluateBindOnceWhenTheShapeIsNotCached() throws Exception {
+    Configuration configuration = createConfiguration();
+    SqlNode rootSqlNode = mixedContents(
+        new VarDeclSqlNode("name", "nextName"),
+        new StaticTextSqlNode("SELECT * FROM BLOG"),
+        new WhereSqlNode(new Configuration(), mixedContents(
+            new StaticTextSqlNode("AND NAME = #{name}"),
+            new ForEachSqlNode(new Configuration(), mixedContents(new StaticTextSqlNode("#{id}")), "ids", null, "id", "AND ID IN (", ")", ","))));
+    DynamicSqlSource uncached = new DynamicSqlSource(configuration, rootSqlNode);
+    configuration.setBoundSqlCacheSize(16);
+    DynamicSqlSource source = new DynamicSqlSource(configuration, rootSqlNode);
+    configuration.setBoundSqlCacheSize(0);
+
+    NameSequence parameter = new NameSequence();
+    BoundSql boundSql = source.getBoundSql(parameter);
+    assertEquals(1, parameter.getEvaluations());
+    assertSameBoundSql(uncached.getBoundSql(new NameSequence()), boundSql);
+    assertEquals("name1", boundSql.getAdditionalParameter("name"));
+    assertEquals(2, boundSql.getAdditionalParameter("__frch_id_1"));
+    boundSql = source.getBoundSql(parameter);
+    assertEquals(2, parameter.getEvaluations());
+    assertEquals("name2", boundSql.getAdditionalParameter("name"));
+    assertEquals(1, source.getBoundSqlCache().getMisses());
+    assertEquals(1, source.getBoundSqlCache().getHits());
+  }
+
+  public static class NameSequence {
+    private int evaluations;
+
+    public String getNextName() {
+      return "name" + ++evaluations;
+    }
+
+    public int getEvaluations() {
+      return evaluations;
+    }
+
+    public List<Integer> getIds() {
+      return Arrays.asList(1, 2);
+    }
+  }
+
+  private void assertSameBoundSql(BoundSql expected, BoundSql actual) {
+    assertEquals(expected.getSql(), actual.getSql());
+    assertEquals(expected.getParameterMappings().size(), actual.getParameterMappings().size());
+    for (int i = 0; i < expected.getParameterMappings().size(); i++) {
+      ParameterMapping expectedMapping = expected.getParameterMappings().get(i);
+      ParameterMapping actualMapping = actual.getParameterMappings().get(i);
+      assertEquals(expectedMapping.getProperty(), actualMapping.getProperty());
+      assertEquals(expectedMapping.getJavaType(), actualMapping.getJavaType());
+      assertEquals(expectedMapping.getJdbcType(), actualMapping.getJdbcType());
+      assertEquals(expectedMapping.getTypeHandler().getClass(), actualMapping.getTypeHandler().getClass());
+    }
+    for (ParameterMapping mapping : expected.getParameterMappings()) {
+      assertEquals(expected.getAdditionalParameter(mapping.getProperty()), actual.getAdditionalParameter(mapping.getProperty()));
+    }
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
+    Configuration configuration = createConfiguration();
+    MixedSqlNode sqlNode = mixedContents(contents);
+    return new DynamicSqlSource(configuration, sqlNode);
+  }
+
+  private Configuration createConfiguration() throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
     final Reader reader = Resources.getResourceAsReader(resource);
     SqlSessionFactory sqlMapper = new SqlSessionFactoryBuilder().build(reader);
-    Configuration configuration = sqlMapper.getConfiguration();
-    MixedSqlNode sqlNode = mixedContents(contents);
-    return new DynamicSqlSource(configuration, sqlNode);
+    return sqlMapper.getConfiguration();
   }
 
   private MixedSqlNode mixedContents(SqlNode... contents) {
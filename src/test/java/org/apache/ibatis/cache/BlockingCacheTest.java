@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BlockingCacheTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldLoadOnceAndHandValueToWaitingThreads() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setHandOff(true);
+    Object value = new Object();
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Object>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        Object cached = cache.getObject("key");
+        if (cached == null) {
+          loads.incrementAndGet();
+          Thread.sleep(100);
+          cache.putObject("key", value);
+          return value;
+        }
+        return cached;
+      }));
+    }
+    start.countDown();
+    for (Future<Object> future : futures) {
+      assertSame(value, future.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void shouldGiveWaitingThreadsCopiesWhenNotHandingOff() throws Exception {
+    BlockingCache cache = new BlockingCache(new SerializedCache(new PerpetualCache("default")));
+    assertNull(cache.getObject("key"));
+    Future<Object> waiter = executor.submit(() -> cache.getObject("key"));
+    Thread.sleep(100);
+    String value = new String("value");
+    cache.putObject("key", value);
+    Object copy = waiter.get(5, TimeUnit.SECONDS);
+    assertEquals(value, copy);
+    assertNotSame(value, copy);
+  }
+
+  @Test
+  void shouldLetWaitingThreadLoadWhenLockIsReleasedWithoutValue() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    Future<Object> waiter = executor.submit(() -> cache.getObject("key"));
+    Thread.sleep(100);
+    assertFalse(waiter.isDone());
+    cache.removeObject("key");
+    // the waiting thread now owns the key
+    assertNull(waiter.get(5, TimeUnit.SECONDS));
+    Future<Object> next = executor.submit(() -> cache.getObject("key"));
+    Thread.sleep(100);
+    assertFalse(next.isDone());
+    cache.putObject("key", "value");
+    assertEquals("value", next.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldNotBlockHitsOrOtherKeys() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("loaded"));
+    cache.putObject("loaded", "value");
+    assertNull(cache.getObject("loading"));
+    assertEquals("value", executor.submit(() -> cache.getObject("loaded")).get(5, TimeUnit.SECONDS));
+    assertNull(executor.submit(() -> cache.getObject("other")).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldTimeOutWaitingForKey() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(100);
+    assertNull(cache.getObject("key"));
+    Future<Object> waiter = executor.submit(() -> cache.getObject("key"));
+    Exception e = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof CacheException);
+    assertTrue(e.getCause().getMessage().startsWith("Couldn't get a lock in 100 for the key key"));
+  }
+
+  @Test
+  void shouldReleaseMissedEntriesOnCommitWithoutStoringNull() throws Exception {
+    Cache perpetualCache = new PerpetualCache("default");
+    BlockingCache cache = new BlockingCache(perpetualCache);
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    assertNull(transactionalCache.getObject("key"));
+    transactionalCache.commit();
+    assertEquals(0, perpetualCache.getSize());
+    assertNull(executor.submit(() -> cache.getObject("key")).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldReleaseMissedEntriesOnRollback() throws Exception {
+    Cache perpetualCache = new PerpetualCache("default");
+    BlockingCache cache = new BlockingCache(perpetualCache);
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    assertNull(transactionalCache.getObject("key"));
+    transactionalCache.putObject("key", "value");
+    transactionalCache.rollback();
+    assertEquals(0, perpetualCache.getSize());
+    assertNull(executor.submit(() -> cache.getObject("key")).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldRejectReleasingUnacquiredLock() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertThrows(IllegalStateException.class, () -> cache.removeObject("key"));
+  }
+
+}
@@ -106,6 +106,47 @@ class CacheKeyTest {
     assertEquals(cacheKey.hashCode(), clonedCacheKey.hashCode());
   }
 
+  @Test
+  void shouldGrowBeyondExpectedUpdateCount() {
+    CacheKey presized = new CacheKey(2);
+    CacheKey empty = new CacheKey(0);
+    for (int i = 0; i < 20; i++) {
+      presized.update(i);
+      empty.update(i);
+    }
+    assertEquals(20, presized.getUpdateCount());
+    assertEquals(presized, empty);
+    assertEquals(presized.hashCode(), empty.hashCode());
+  }
+
+  @Test
+  void updatingCloneShouldNotAffectOriginal() throws Exception {
+    CacheKey cacheKey = new CacheKey(new Object[] { 1, "hello" });
+    CacheKey clonedCacheKey = cacheKey.clone();
+    clonedCacheKey.update("world");
+    clonedCacheKey.update("again");
+    assertEquals(2, cacheKey.getUpdateCount());
+    assertNotEquals(cacheKey, clonedCacheKey);
+    assertEquals(new CacheKey(new Object[] { 1, "hello" }), cacheKey);
+    assertEquals(new CacheKey(new Object[] { 1, "hello", "world", "again" }), clonedCacheKey);
+  }
+
+  @Test
+  void resetKeyShouldEqualNewKey() {
+    CacheKey cacheKey = new CacheKey(new Object[] { 1, "hello" });
+    cacheKey.reset();
+    assertEquals(0, cacheKey.getUpdateCount());
+    assertEquals(new CacheKey(), cacheKey);
+    cacheKey.update("world");
+    assertEquals(new CacheKey(new Object[] { "world" }), cacheKey);
+    assertEquals(new CacheKey(new Object[] { "world" }).hashCode(), cacheKey.hashCode());
+  }
+
+  @Test
+  void throwExceptionWhenTryingToResetNullCacheKey() {
+    assertThrows(CacheException.class, CacheKey.NULL_CACHE_KEY::reset);
+  }
+
   @Test
   void serializationExceptionTest() {
     CacheKey cacheKey = new CacheKey();
@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCacheTest {
+
+  @Test
+  void shouldReturnCopiesOfStoredValues() {
+    Cache cache = new SerializedCache(new OffHeapCache("default"));
+    ArrayList<String> value = new ArrayList<>();
+    value.add("one");
+    cache.putObject(1, value);
+    assertEquals(value, cache.getObject(1));
+    assertNotSame(value, cache.getObject(1));
+    assertNotSame(cache.getObject(1), cache.getObject(1));
+  }
+
+  @Test
+  void shouldCacheNullValues() {
+    Cache cache = new SerializedCache(new OffHeapCache("default"));
+    cache.putObject(0, null);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRejectValuesThatAreNotSerialized() {
+    Cache cache = new OffHeapCache("default");
+    assertThrows(CacheException.class, () -> cache.putObject(0, "not serialized"));
+  }
+
+  @Test
+  void shouldReplaceAndRemoveValues() {
+    Cache cache = new OffHeapCache("default");
+    cache.putObject(0, new byte[] { 1 });
+    cache.putObject(0, new byte[] { 2, 3 });
+    assertArrayEquals(new byte[] { 2, 3 }, (byte[]) cache.getObject(0));
+    assertEquals(1, cache.getSize());
+    assertArrayEquals(new byte[] { 2, 3 }, (byte[]) cache.removeObject(0));
+    assertNull(cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldEvictOldestSlabWhenCapacityIsReached() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(100);
+    cache.setCapacity(300);
+    for (int i = 0; i < 30; i++) {
+      cache.putObject(i, new byte[] { (byte) i, 0, 0, 0, 0, 0, 0, 0, 0, 0 });
+    }
+    // three slabs of ten entries each are full, the next put reuses the first one
+    assertEquals(30, cache.getSize());
+    cache.putObject(30, new byte[10]);
+    assertEquals(21, cache.getSize());
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(9));
+    assertEquals(10, ((byte[]) cache.getObject(10))[0]);
+    assertNotNull(cache.getObject(30));
+  }
+
+  @Test
+  void shouldNotCacheValuesLargerThanASlab() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(10);
+    cache.putObject(0, new byte[5]);
+    cache.putObject(0, new byte[11]);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldBoundNumberOfEntries() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSize(5);
+    for (int i = 0; i < 10; i++) {
+      cache.putObject(i, new byte[] { (byte) i });
+    }
+    assertEquals(5, cache.getSize());
+    assertNull(cache.getObject(4));
+    assertNotNull(cache.getObject(5));
+  }
+
+  @Test
+  void shouldReuseMemoryAfterClear() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(10);
+    cache.setCapacity(10);
+    cache.putObject(0, new byte[10]);
+    cache.clear();
+    assertEquals(0, cache.getSize());
+    cache.putObject(1, new byte[10]);
+    assertNotNull(cache.getObject(1));
+  }
+
+  @Test
+  void shouldBeSafeForConcurrentUse() throws Exception {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSlabSize(1024);
+    cache.setCapacity(8 * 1024);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10000; i++) {
+            int key = i % 500;
+            byte[] value = (byte[]) cache.getObject(key);
+            if (value == null) {
+              cache.putObject(key, new byte[] { (byte) key, (byte) (key >> 8) });
+            } else {
+              assertEquals(key, (value[0] & 0xFF) | (value[1] & 0xFF) << 8);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldBeEqualById() {
+    assertEquals(new OffHeapCache("a"), new OffHeapCache("a"));
+    assertNotEquals(new OffHeapCache("a"), new OffHeapCache("b"));
+  }
+
+}
@@ -0,0 +1,248 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.serializer.JavaCacheSerializer;
+import org.apache.ibatis.cache.serializer.ReflectorCacheSerializer;
+import org.apache.ibatis.domain.blog.Section;
+import org.junit.jupiter.api.Test;
+
+class ReflectorCacheSerializerTest {
+
+  private final CacheSerializer serializer = new ReflectorCacheSerializer();
+
+  @Test
+  void shouldCopyBeanGraphs() {
+    Person person = new Person();
+    person.setName("jim");
+    person.setAge(42);
+    person.setActive(true);
+    person.setSection(Section.NEWS);
+    person.setSalary(new BigDecimal("1234.56"));
+    person.setBirthDate(new Date(1000L));
+    Timestamp timestamp = new Timestamp(2000L);
+    timestamp.setNanos(123456789);
+    person.setUpdatedOn(timestamp);
+    person.setPhoto(new byte[] { 1, 2, 3 });
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("nickname", "jimmy");
+    person.setAttributes(attributes);
+    Person friend = new Person();
+    friend.setName("sally");
+    person.setFriends(new ArrayList<>(Arrays.asList(friend)));
+
+    Person copy = (Person) serializer.deserialize(serializer.serialize(person));
+
+    assertNotSame(person, copy);
+    assertEquals("jim", copy.getName());
+    assertEquals(42, copy.getAge());
+    assertTrue(copy.isActive());
+    assertEquals(Section.NEWS, copy.getSection());
+    assertEquals(new BigDecimal("1234.56"), copy.getSalary());
+    assertEquals(new Date(1000L), copy.getBirthDate());
+    assertEquals(timestamp, copy.getUpdatedOn());
+    assertArrayEquals(new byte[] { 1, 2, 3 }, copy.getPhoto());
+    assertEquals(attributes, copy.getAttributes());
+    assertEquals(1, copy.getFriends().size());
+    assertEquals("sally", copy.getFriends().get(0).getName());
+    assertNull(copy.getFriends().get(0).getFriends());
+  }
+
+  @Test
+  void shouldPreserveSharedAndCircularReferences() {
+    Person jim = new Person();
+    Person sally = new Person();
+    jim.setFriends(new ArrayList<>(Arrays.asList(sally)));
+    sally.setFriends(new ArrayList<>(Arrays.asList(jim, sally)));
+    ArrayList<Person> people = new ArrayList<>(Arrays.asList(jim, sally, jim));
+
+    @SuppressWarnings("unchecked")
+    List<Person> copy = (List<Person>) serializer.deserialize(serializer.serialize(people));
+
+    Person jimCopy = copy.get(0);
+    Person sallyCopy = copy.get(1);
+    assertSame(jimCopy, copy.get(2));
+    assertSame(sallyCopy, jimCopy.getFriends().get(0));
+    assertSame(jimCopy, sallyCopy.getFriends().get(0));
+    assertSame(sallyCopy, sallyCopy.getFriends().get(1));
+  }
+
+  @Test
+  void shouldFallBackToJavaSerializationForOtherTypes() {
+    ArrayList<Object> values = new ArrayList<>();
+    values.add(Arrays.asList("a", "b"));
+    values.add(new Immutable("value"));
+
+    @SuppressWarnings("unchecked")
+    List<Object> copy = (List<Object>) serializer.deserialize(serializer.serialize(values));
+
+    assertEquals(Arrays.asList("a", "b"), copy.get(0));
+    assertEquals("value", ((Immutable) copy.get(1)).value);
+  }
+
+  @Test
+  void shouldFailOnNonSerializableValues() {
+    ArrayList<Object> values = new ArrayList<>();
+    values.add(new Object());
+    assertThrows(CacheException.class, () -> serializer.serialize(values));
+  }
+
+  @Test
+  void shouldBeSmallerThanJavaSerialization() {
+    ArrayList<Person> people = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      Person person = new Person();
+      person.setName("person" + i);
+      person.setAge(i);
+      people.add(person);
+    }
+    assertTrue(serializer.serialize(people).length < new JavaCacheSerializer().serialize(people).length);
+  }
+
+  @Test
+  void shouldBeUsableBySerializedCache() {
+    Cache cache = new SerializedCache(new PerpetualCache("default"), serializer);
+    Person person = new Person();
+    person.setName("jim");
+    cache.putObject(1, person);
+    cache.putObject(2, null);
+    assertEquals("jim", ((Person) cache.getObject(1)).getName());
+    assertNotSame(cache.getObject(1), cache.getObject(1));
+    assertNull(cache.getObject(2));
+  }
+
+  public static class Person implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+    private int age;
+    private boolean active;
+    private Section section;
+    private BigDecimal salary;
+    private Date birthDate;
+    private Timestamp updatedOn;
+    private byte[] photo;
+    private Map<String, Object> attributes;
+    private List<Person> friends;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public int getAge() {
+      return age;
+    }
+
+    public void setAge(int age) {
+      this.age = age;
+    }
+
+    public boolean isActive() {
+      return active;
+    }
+
+    public void setActive(boolean active) {
+      this.active = active;
+    }
+
+    public Section getSection() {
+      return section;
+    }
+
+    public void setSection(Section section) {
+      this.section = section;
+    }
+
+    public BigDecimal getSalary() {
+      return salary;
+    }
+
+    public void setSalary(BigDecimal salary) {
+      this.salary = salary;
+    }
+
+    public Date getBirthDate() {
+      return birthDate;
+    }
+
+    public void setBirthDate(Date birthDate) {
+      this.birthDate = birthDate;
+    }
+
+    public Timestamp getUpdatedOn() {
+      return updatedOn;
+    }
+
+    public void setUpdatedOn(Timestamp updatedOn) {
+      this.updatedOn = updatedOn;
+    }
+
+    public byte[] getPhoto() {
+      return photo;
+    }
+
+    public void setPhoto(byte[] photo) {
+      this.photo = photo;
+    }
+
+    public Map<String, Object> getAttributes() {
+      return attributes;
+    }
+
+    public void setAttributes(Map<String, Object> attributes) {
+      this.attributes = attributes;
+    }
+
+    public List<Person> getFriends() {
+      return friends;
+    }
+
+    public void setFriends(List<Person> friends) {
+      this.friends = friends;
+    }
+  }
+
+  public static class Immutable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String value;
+
+    public Immutable(String value) {
+      this.value = value;
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Properties;
+
+import org.apache.ibatis.datasource.DataSourceException;
+import org.apache.ibatis.datasource.pooled.HistogramPoolMetrics.Histogram;
+import org.junit.jupiter.api.Test;
+
+class HistogramPoolMetricsTest {
+
+  @Test
+  void shouldMapEveryValueToBucketBoundingIt() {
+    long[] values = { 0, 1, 15, 16, 17, 100, 1000, 123456789L, Long.MAX_VALUE };
+    for (long value : values) {
+      int index = Histogram.indexOf(value);
+      assertTrue(Histogram.upperBoundOf(index) >= value, "upper bound of " + value);
+      assertTrue(index == 0 || Histogram.upperBoundOf(index - 1) < value, "previous bucket of " + value);
+    }
+  }
+
+  @Test
+  void shouldComputePercentilesWithinBucketPrecision() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000, histogram.getMax());
+    assertEquals(500.5, histogram.getMean(), 0.001);
+    assertEquals(500, histogram.getValueAtPercentile(50), 500 * 0.125);
+    assertEquals(990, histogram.getValueAtPercentile(99), 990 * 0.125);
+    assertEquals(1000, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  void shouldReturnZeroWhenEmpty() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    assertEquals(0, histogram.getMean());
+  }
+
+  @Test
+  void shouldCreateMetricsFromFactoryProperty() {
+    PooledDataSourceFactory factory = new PooledDataSourceFactory();
+    Properties properties = new Properties();
+    properties.setProperty("poolMaximumActiveConnections", "3");
+    properties.setProperty("poolMetrics", HistogramPoolMetrics.class.getName());
+    factory.setProperties(properties);
+    PooledDataSource dataSource = (PooledDataSource) factory.getDataSource();
+    assertEquals(3, dataSource.getPoolMaximumActiveConnections());
+    assertTrue(dataSource.getPoolMetrics() instanceof HistogramPoolMetrics);
+  }
+
+  @Test
+  void shouldFailOnUnknownMetricsType() {
+    PooledDataSourceFactory factory = new PooledDataSourceFactory();
+    Properties properties = new Properties();
+    properties.setProperty("poolMetrics", "org.example.Unknown");
+    assertThrows(DataSourceException.class, () -> factory.setProperties(properties));
+  }
+
+}
@@ -16,10 +16,17 @@
 package org.apache.ibatis.executor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
+import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,12 +36,16 @@ import javassist.util.proxy.Proxy;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
 import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
@@ -461,6 +472,62 @@ class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldSelectAuthorWithStatementLocalCacheScope() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    BaseExecutor baseExecutor = baseExecutor(executor);
+    PerpetualCache localCache = spy(baseExecutor.localCache);
+    baseExecutor.localCache = localCache;
+    try {
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      List<Author> first = executor.query(selectStatement, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      List<Author> second = executor.query(selectStatement, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(1, first.size());
+      assertEquals(first.get(0).toString(), second.get(0).toString());
+      assertNotSame(first.get(0), second.get(0));
+      // the result could never be looked up before the local cache is cleared, so it is neither looked up nor stored
+      verify(localCache, never()).getObject(any());
+      verify(localCache, never()).putObject(any(), any());
+      BoundSql boundSql = selectStatement.getBoundSql(101);
+      CacheKey key = executor.createCacheKey(selectStatement, 101, RowBounds.DEFAULT, boundSql);
+      assertFalse(executor.isCached(selectStatement, key));
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  void shouldFetchComplexBlogsWithStatementLocalCacheScope() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectBlog = ExecutorTestHelper.prepareComplexSelectBlogMappedStatement(config);
+      MappedStatement selectPosts = ExecutorTestHelper.prepareSelectPostsForBlogMappedStatement(config);
+      config.addMappedStatement(selectBlog);
+      config.addMappedStatement(selectPosts);
+      List<Blog> blogs = executor.query(selectBlog, 1, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      executor.flushStatements();
+      assertEquals(1, blogs.size());
+      assertEquals(2, blogs.get(0).getPosts().size());
+      // circular references are still resolved through deferred loads
+      assertEquals(1, blogs.get(0).getPosts().get(1).getBlog().getPosts().get(1).getBlog().getId());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  private static BaseExecutor baseExecutor(Executor executor) throws Exception {
+    if (executor instanceof CachingExecutor) {
+      Field delegate = CachingExecutor.class.getDeclaredField("delegate");
+      delegate.setAccessible(true);
+      return (BaseExecutor) delegate.get(executor);
+    }
+    return (BaseExecutor) executor;
+  }
+
   protected Executor createExecutor(Transaction transaction) {
     return new SimpleExecutor(config, transaction);
   }
@@ -18,6 +18,8 @@ package org.apache.ibatis.executor.resultset;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
@@ -33,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 
 import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -129,6 +132,80 @@ class DefaultResultSetHandlerTest {
     }
   }
 
+  @Test
+  void shouldMapRowsByColumnIndexWithMappingPlan() throws Exception {
+    final Configuration config = new Configuration();
+    config.setResultMappingPlanCacheSize(10);
+    final ResultMap resultMap = new ResultMap.Builder(config, "authorMap", Author.class, Collections.singletonList(
+        new ResultMapping.Builder(config, "id", "ID", config.getTypeHandlerRegistry().getTypeHandler(int.class)).build()))
+        .build();
+    final MappedStatement ms = new MappedStatement.Builder(config, "selectAuthors",
+        new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap)).build();
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true, true, false, true, false);
+    when(rs.getInt(1)).thenReturn(101, 102, 101);
+    when(rs.getString(2)).thenReturn("jim", "sally", "jim");
+    when(rsmd.getColumnCount()).thenReturn(2);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnLabel(2)).thenReturn("USERNAME");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(rsmd.getColumnClassName(2)).thenReturn(String.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    List<Object> results = new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds()).handleResultSets(stmt);
+    assertEquals(2, results.size());
+    assertEquals(101, ((Author) results.get(0)).getId());
+    assertEquals("jim", ((Author) results.get(0)).getUsername());
+    assertEquals(102, ((Author) results.get(1)).getId());
+    assertEquals("sally", ((Author) results.get(1)).getUsername());
+
+    results = new DefaultResultSetHandler(null, ms, null, null, null, new RowBounds()).handleResultSets(stmt);
+    assertEquals(1, results.size());
+    assertEquals("jim", ((Author) results.get(0)).getUsername());
+    assertEquals(1, config.getResultMappingPlanCache().getSize());
+    assertEquals(1, config.getResultMappingPlanCache().getMisses());
+    assertEquals(1, config.getResultMappingPlanCache().getHits());
+  }
+
+  @Test
+  void shouldReuseResultSetMetadataOfSameStatement() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    final Configuration config = ms.getConfiguration();
+    config.setResultSetMetadataCacheSize(10);
+    final BoundSql boundSql = new BoundSql(config, "some select statement", Collections.emptyList(), null);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true, false, true, false);
+    when(rs.getInt("CoLuMn1")).thenReturn(100, 200);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    List<Object> results = new DefaultResultSetHandler(null, ms, null, null, boundSql, new RowBounds()).handleResultSets(stmt);
+    assertEquals(100, ((HashMap) results.get(0)).get("cOlUmN1"));
+    results = new DefaultResultSetHandler(null, ms, null, null, boundSql, new RowBounds()).handleResultSets(stmt);
+    assertEquals(200, ((HashMap) results.get(0)).get("cOlUmN1"));
+
+    verify(rsmd, times(1)).getColumnType(1);
+    verify(rsmd, times(1)).getColumnClassName(1);
+    assertEquals(1, config.getResultSetMetadataCache().getSize());
+    assertEquals(1, config.getResultSetMetadataCache().getHits());
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.junit.jupiter.api.Test;
+
+class RowKeyTableTest {
+
+  @Test
+  void shouldFindStoredKeysAfterGrowing() {
+    RowKeyTable table = new RowKeyTable();
+    for (int i = 0; i < 1000; i++) {
+      table.put(key("row", i), i);
+    }
+    assertThat(table.size()).isEqualTo(1000);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(table.get(key("row", i))).isEqualTo(i);
+    }
+    assertThat(table.indexOf(key("row", 1000))).isEqualTo(-1);
+  }
+
+  @Test
+  void shouldKeepStoredKeyWhenReplacingValue() {
+    RowKeyTable table = new RowKeyTable();
+    CacheKey stored = key("row", 1);
+    table.put(stored, null);
+    table.put(key("row", 1), "value");
+    int index = table.indexOf(key("row", 1));
+    assertThat(table.keyAt(index)).isSameAs(stored);
+    assertThat(table.valueAt(index)).isEqualTo("value");
+    assertThat(table.size()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldForgetKeysWhenCleared() {
+    RowKeyTable table = new RowKeyTable();
+    table.put(key("row", 1), "value");
+    table.clear();
+    assertThat(table.size()).isZero();
+    assertThat(table.get(key("row", 1))).isNull();
+  }
+
+  @Test
+  void shouldStayUsableAfterShrinkingOnClear() {
+    RowKeyTable table = new RowKeyTable();
+    for (int i = 0; i < 10000; i++) {
+      table.put(key("row", i), i);
+    }
+    table.clear();
+    table.put(key("row", 1), "first");
+    table.clear();
+    for (int i = 0; i < 100; i++) {
+      table.put(key("row", i), i);
+    }
+    assertThat(table.size()).isEqualTo(100);
+    assertThat(table.get(key("row", 99))).isEqualTo(99);
+    assertThat(table.get(key("row", 100))).isNull();
+  }
+
+  private static CacheKey key(Object... objects) {
+    return new CacheKey(objects);
+  }
+
+}
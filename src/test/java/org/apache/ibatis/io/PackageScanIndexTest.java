@@ -0,0 +1,114 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PackageScanIndexTest {
+
+  @Test
+  void shouldListEachPackageOnce() throws Exception {
+    try (PackageScanIndex index = PackageScanIndex.open(false)) {
+      List<String> children = index.list("org/apache/ibatis/io");
+      assertThat(children).containsAll(VFS.getInstance().list("org/apache/ibatis/io"));
+      assertThat(index.list("org/apache/ibatis/io")).isSameAs(children);
+    }
+  }
+
+  @Test
+  void shouldListSubPackageFromEnclosingPackage() throws Exception {
+    try (PackageScanIndex index = PackageScanIndex.open(false)) {
+      assertThat(index.list("org/apache/ibatis/domain")).isNotEmpty();
+      assertThat(index.list("org/apache/ibatis/domain/blog"))
+          .containsExactlyInAnyOrderElementsOf(VFS.getInstance().list("org/apache/ibatis/domain/blog"));
+    }
+  }
+
+  @Test
+  void shouldBeUsedByResolverUtilUntilClosed() throws Exception {
+    assertThat(PackageScanIndex.current()).isNull();
+    try (PackageScanIndex outer = PackageScanIndex.open(false)) {
+      try (PackageScanIndex inner = PackageScanIndex.open(false)) {
+        assertThat(PackageScanIndex.current()).isSameAs(inner);
+        new ResolverUtil<>().findImplementations(VFS.class, "org.apache.ibatis.io");
+        assertThat(inner.list("org/apache/ibatis/io")).isSameAs(inner.list("org/apache/ibatis/io"));
+      }
+      assertThat(PackageScanIndex.current()).isSameAs(outer);
+    }
+    assertThat(PackageScanIndex.current()).isNull();
+  }
+
+  @Test
+  void shouldScanIndexedPackagesFromIndexFiles(@TempDir Path dir) throws Exception {
+    Path indexFile = dir.resolve(PackageScanIndex.INDEX_RESOURCE);
+    Files.createDirectories(indexFile.getParent());
+    PackageScanIndex.main(new String[] { indexFile.toString(), "org.apache.ibatis.io" });
+    List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+    assertThat(lines.get(0)).isEqualTo("org/apache/ibatis/io/");
+    assertThat(lines).contains("org/apache/ibatis/io/DefaultVFS.class", "org/apache/ibatis/io/JBoss6VFS.class");
+
+    // the directory of the index file is not walked for its packages, only the indexed classes are listed
+    Files.write(indexFile, Arrays.asList("# generated", "org/apache/ibatis/indexed/", "org/apache/ibatis/indexed/Indexed.class"),
+        StandardCharsets.UTF_8);
+    Files.createDirectories(dir.resolve("org/apache/ibatis/indexed"));
+    Files.write(dir.resolve("org/apache/ibatis/indexed/NotIndexed.class"), new byte[0]);
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, contextClassLoader)) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      try (PackageScanIndex index = PackageScanIndex.open(true)) {
+        assertThat(index.list("org/apache/ibatis/indexed")).containsExactly("org/apache/ibatis/indexed/Indexed.class");
+        assertThat(index.list("org/apache/ibatis/domain/blog")).isNotEmpty();
+      }
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  @Test
+  void shouldWalkRootsWithoutIndexFileForSplitPackages(@TempDir Path dir) throws Exception {
+    Path indexFile = dir.resolve(PackageScanIndex.INDEX_RESOURCE);
+    Files.createDirectories(indexFile.getParent());
+    Files.write(indexFile, Arrays.asList("org/apache/ibatis/io/", "org/apache/ibatis/io/Indexed.class"),
+        StandardCharsets.UTF_8);
+    Files.createDirectories(dir.resolve("org/apache/ibatis/io"));
+    Files.write(dir.resolve("org/apache/ibatis/io/NotIndexed.class"), new byte[0]);
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, contextClassLoader)) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      try (PackageScanIndex index = PackageScanIndex.open(true)) {
+        // the classes of the package in the other roots are listed with the indexed ones
+        assertThat(index.list("org/apache/ibatis/io")).contains("org/apache/ibatis/io/Indexed.class",
+            "org/apache/ibatis/io/DefaultVFS.class").doesNotContain("org/apache/ibatis/io/NotIndexed.class");
+        assertThat(new ResolverUtil<>().findImplementations(VFS.class, "org.apache.ibatis.io").getClasses())
+            .contains(DefaultVFS.class, JBoss6VFS.class);
+      }
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+}
@@ -24,9 +24,15 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.HistogramPoolMetrics;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
 import org.junit.jupiter.api.Disabled;
@@ -75,6 +81,214 @@ class PooledDataSourceTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldHandOffReturnedConnectionToWaitingThread() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumIdleConnections(1);
+    ds.setPoolTimeToWait(60000);
+    ds.setPoolMaximumCheckoutTime(60000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Connection held = ds.getConnection();
+      Future<Long> waiter = executor.submit(() -> {
+        long start = System.currentTimeMillis();
+        try (Connection c = ds.getConnection()) {
+          return System.currentTimeMillis() - start;
+        }
+      });
+      while (ds.getPoolState().getHadToWaitCount() == 0) {
+        Thread.sleep(10);
+      }
+      held.close();
+      assertTrue(waiter.get(10, TimeUnit.SECONDS) < 10000);
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNeverExceedMaximumActiveConnectionsUnderContention() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(3);
+    ds.setPoolMaximumIdleConnections(2);
+    ds.setPoolTimeToWait(100);
+    ds.setPoolMaximumCheckoutTime(60000);
+    int threads = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    AtomicInteger inUse = new AtomicInteger();
+    AtomicInteger maxInUse = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < 100; j++) {
+            try (Connection c = ds.getConnection()) {
+              maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+              Thread.yield();
+              inUse.decrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+      assertTrue(maxInUse.get() <= 3);
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertTrue(ds.getPoolState().getIdleConnectionCount() <= 2);
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(threads * 100, ds.getPoolState().getRequestCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNeverExceedMaximumIdleConnectionsWhenReturnedConcurrently() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    int threads = 8;
+    ds.setPoolMaximumActiveConnections(threads);
+    ds.setPoolMaximumIdleConnections(2);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch checkedOut = new CountDownLatch(threads);
+    CountDownLatch close = new CountDownLatch(1);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          try (Connection c = ds.getConnection()) {
+            checkedOut.countDown();
+            close.await();
+          }
+          return null;
+        }));
+      }
+      assertTrue(checkedOut.await(60, TimeUnit.SECONDS));
+      close.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+    assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+  }
+
+  @Test
+  void shouldFillMinimumIdleConnectionsInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumIdleConnections(5);
+    ds.setPoolMinimumIdleConnections(3);
+    ds.setPoolHousekeepingInterval(20);
+    try {
+      long deadline = System.currentTimeMillis() + 10000;
+      while (ds.getPoolState().getIdleConnectionCount() < 3 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(3, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.setPoolHousekeepingInterval(0);
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldEvictIdleConnectionsPastMaximumLifetime() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumLifetime(50);
+    try {
+      ds.getConnection().close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      ds.setPoolHousekeepingInterval(20);
+      long deadline = System.currentTimeMillis() + 10000;
+      while (ds.getPoolState().getIdleConnectionCount() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.setPoolHousekeepingInterval(0);
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldNotPingOnCheckoutWhenHousekeepingIsEnabled() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolPingEnabled(true);
+    ds.setPoolPingQuery("NOT A VALID QUERY");
+    ds.setPoolPingConnectionsNotUsedFor(0);
+    ds.setPoolHousekeepingInterval(TimeUnit.HOURS.toMillis(1));
+    try {
+      for (int i = 0; i < 3; i++) {
+        Thread.sleep(5);
+        ds.getConnection().close();
+      }
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.setPoolHousekeepingInterval(0);
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldReportCheckoutsUsagesAndTimeoutsToMetrics() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(20);
+    ds.setPoolMaximumCheckoutTime(60000);
+    HistogramPoolMetrics metrics = new HistogramPoolMetrics();
+    ds.setPoolMetrics(metrics);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Connection held = ds.getConnection();
+      assertEquals(1, metrics.getActiveConnectionCount());
+      Future<?> waiter = executor.submit(() -> {
+        ds.getConnection().close();
+        return null;
+      });
+      while (metrics.getTimeoutCount() == 0) {
+        Thread.sleep(10);
+      }
+      held.close();
+      waiter.get(10, TimeUnit.SECONDS);
+      assertEquals(2, metrics.getCheckoutHistogram().getCount());
+      assertTrue(metrics.getCheckoutHistogram().getMax() >= TimeUnit.MILLISECONDS.toMicros(20));
+      assertEquals(2, metrics.getUsageHistogram().getCount());
+      assertEquals(0, metrics.getActiveConnectionCount());
+      assertEquals(1, metrics.getIdleConnectionCount());
+      assertEquals(0, metrics.getWaitingThreadCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldReportConnectionsReturnedAfterForceCloseAllToMetrics() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    HistogramPoolMetrics metrics = new HistogramPoolMetrics();
+    ds.setPoolMetrics(metrics);
+    Connection conn = ds.getConnection();
+    ds.forceCloseAll();
+    conn.close();
+    assertEquals(1, ds.getPoolState().getBadConnectionCount());
+    assertEquals(1, metrics.getBadConnectionCount());
+  }
+
   @Test
   void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -19,10 +19,17 @@ import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.BDDAssertions.then;
 
 import java.lang.reflect.Field;
+import java.util.Properties;
 
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.ConcurrentLruCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -43,6 +50,53 @@ class CacheBuilderTest {
       .hasMessage("Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void testConcurrentLruCacheIsNotSynchronized() {
+    Cache cache = new CacheBuilder("test").implementation(ConcurrentLruCache.class).addDecorator(LruCache.class)
+        .size(10).build();
+
+    then(cache).isInstanceOf(LoggingCache.class);
+    ConcurrentLruCache base = unwrap(cache);
+    for (int i = 0; i < 20; i++) {
+      base.putObject(i, i);
+    }
+    then(base.getSize()).isEqualTo(10);
+  }
+
+  @Test
+  void testOffHeapCacheIsAlwaysSerialized() {
+    Cache cache = new CacheBuilder("test").implementation(OffHeapCache.class).readWrite(false).build();
+
+    then(cache).isInstanceOf(LoggingCache.class);
+    Cache serialized = unwrap(cache);
+    then(serialized).isInstanceOf(SerializedCache.class);
+    then((Object) unwrap(serialized)).isInstanceOf(OffHeapCache.class);
+    String value = "value";
+    cache.putObject("key", value);
+    then(cache.getObject("key")).isEqualTo(value).isNotSameAs(value);
+  }
+
+  @Test
+  void testBlockingCacheProperties() {
+    Properties props = new Properties();
+    props.setProperty("timeout", "500");
+    Cache cache = new CacheBuilder("test").blocking(true).readWrite(false).properties(props).build();
+
+    then(cache).isInstanceOf(BlockingCache.class);
+    then(((BlockingCache) cache).getTimeout()).isEqualTo(500L);
+    then(((BlockingCache) cache).isHandOff()).isTrue();
+    then(((BlockingCache) new CacheBuilder("test").blocking(true).readWrite(true).build()).isHandOff()).isFalse();
+  }
+
+  @Test
+  void testBlockingCacheOfReadWriteCacheNeverHandsOff() {
+    Properties props = new Properties();
+    props.setProperty("handOff", "true");
+    Cache cache = new CacheBuilder("test").blocking(true).readWrite(true).properties(props).build();
+
+    then(((BlockingCache) cache).isHandOff()).isFalse();
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache) {
     Field field;
@@ -16,11 +16,15 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -211,6 +215,24 @@ class XPathParserTest {
     assertEquals("employee[${id_var}]_height", node.getValueBasedIdentifier());
   }
 
+  @Test
+  void plainPathsSelectElementsInDocumentOrder() {
+    XPathParser parser = new XPathParser("<a><b>1</b><c>2</c><b>3</b><d><b>4</b></d><d><b>5</b></d></a>");
+    XNode a = parser.evalNode("/a");
+    assertEquals(Arrays.asList("1", "3"), bodies(parser.evalNodes("/a/b")));
+    assertEquals(Arrays.asList("1", "2", "3"), bodies(a.evalNodes("b|c")));
+    assertEquals(Arrays.asList("4", "5"), bodies(a.evalNodes("d/b")));
+    assertEquals(Arrays.asList("4", "5"), bodies(a.evalNode("d").evalNodes("/a/d/b")));
+    assertEquals("1", a.evalNode("b").getStringBody());
+    assertNull(parser.evalNode("/a/x"));
+    assertEquals(5, parser.evalNodes("/a/*").size());
+    assertEquals(Arrays.asList("1", "3", "4", "5"), bodies(parser.evalNodes("//b[not(. = '2')]")));
+  }
+
+  private static List<String> bodies(List<XNode> nodes) {
+    return nodes.stream().map(XNode::getStringBody).collect(Collectors.toList());
+  }
+
   @Test
   void formatXNodeToString() {
     XPathParser parser = new XPathParser("<users><user><id>100</id><name>Tom</name><age>30</age><cars><car index=\"1\">BMW</car><car index=\"2\">Audi</car><car index=\"3\">Benz</car></cars></user></users>");
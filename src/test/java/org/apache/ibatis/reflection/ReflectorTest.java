@@ -20,13 +20,19 @@ import static org.assertj.core.api.BDDAssertions.then;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ParameterizedType;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.LambdaMethodInvoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
 
 class ReflectorTest {
 
@@ -335,4 +341,63 @@ class ReflectorTest {
             "Ambiguous setters defined for property 'bool' in class '" + Bean.class.getName().replace("$", "\\$")
                 + "' with types '(java.lang.Integer|boolean)' and '(java.lang.Integer|boolean)'\\.");
   }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_9)
+  void shouldCallAccessorsThroughGeneratedInvokers() throws Exception {
+    Reflector reflector = accessorReflector();
+    AccessorBean bean = new AccessorBean();
+    Invoker setter = reflector.getSetInvoker("id");
+    Invoker getter = reflector.getGetInvoker("id");
+    assertTrue(setter instanceof LambdaMethodInvoker);
+    assertTrue(getter instanceof LambdaMethodInvoker);
+    assertEquals(int.class, setter.getType());
+    assertNull(setter.invoke(bean, new Object[] { 101 }));
+    assertEquals(101, getter.invoke(bean, null));
+    reflector.getSetInvoker("name").invoke(bean, new Object[] { "jim" });
+    assertEquals("jim", bean.name);
+    when(() -> reflector.getGetInvoker("name").invoke(bean, null));
+    then(caughtException()).isInstanceOf(InvocationTargetException.class).hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @EnabledOnJre(JRE.JAVA_8)
+  void shouldKeepMethodInvokersWhenAccessorsCannotBeGenerated() throws Exception {
+    Reflector reflector = accessorReflector();
+    AccessorBean bean = new AccessorBean();
+    Invoker setter = reflector.getSetInvoker("id");
+    Invoker getter = reflector.getGetInvoker("id");
+    assertTrue(setter instanceof MethodInvoker);
+    assertTrue(getter instanceof MethodInvoker);
+    assertNull(setter.invoke(bean, new Object[] { 101 }));
+    assertEquals(101, getter.invoke(bean, null));
+  }
+
+  private static Reflector accessorReflector() {
+    DefaultReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    reflectorFactory.setGenerateAccessors(true);
+    return reflectorFactory.findForClass(AccessorBean.class);
+  }
+
+  @SuppressWarnings("unused")
+  public static class AccessorBean {
+    private int id;
+    private String name;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      throw new IllegalStateException("no name");
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
 }
@@ -19,16 +19,20 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
@@ -70,6 +74,41 @@ class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  void shouldBindParametersOfStaticStatementWithPlan() throws SQLException {
+    Configuration config = new Configuration();
+    RawSqlSource sqlSource = new RawSqlSource(config, "SELECT * FROM author WHERE id = #{id} AND username = #{username} AND bio = #{bio}", Author.class);
+    MappedStatement mappedStatement = new MappedStatement.Builder(config, "selectAuthor", sqlSource, SqlCommandType.SELECT).build();
+    Author author = new Author(101, "jim", "********", "jim@ibatis.apache.org", null, null);
+
+    for (int i = 0; i < 2; i++) {
+      BoundSql boundSql = mappedStatement.getBoundSql(author);
+      PreparedStatement ps = mock(PreparedStatement.class);
+      new DefaultParameterHandler(mappedStatement, author, boundSql).setParameters(ps);
+      verify(ps).setInt(1, 101);
+      verify(ps).setString(2, "jim");
+      verify(ps).setNull(3, Types.OTHER);
+      Assertions.assertSame(sqlSource.getBindingPlan(config, boundSql.getParameterMappings(), Author.class),
+          sqlSource.getBindingPlan(config, boundSql.getParameterMappings(), Author.class));
+    }
+  }
+
+  @Test
+  void shouldBindMapAndNestedParametersOfStaticStatement() throws SQLException {
+    Configuration config = new Configuration();
+    RawSqlSource sqlSource = new RawSqlSource(config, "SELECT * FROM author WHERE id = #{id} AND username = #{author.username}", Map.class);
+    MappedStatement mappedStatement = new MappedStatement.Builder(config, "selectAuthor", sqlSource, SqlCommandType.SELECT).build();
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 101);
+    parameter.put("author", new Author(101, "jim", "********", "jim@ibatis.apache.org", null, null));
+
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    PreparedStatement ps = mock(PreparedStatement.class);
+    new DefaultParameterHandler(mappedStatement, parameter, boundSql).setParameters(ps);
+    verify(ps).setInt(1, 101);
+    verify(ps).setString(2, "jim");
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class ExpressionCompilerTest {
+
+  private static final String[] EXPRESSIONS = {
+      "author != null", "author == null", "author.username", "author.username == 'cbegin'",
+      "author.username != null and author.username != ''", "author.id > 0", "author.id >= 1 and author.id <= 1",
+      "author.id < 1 or author.id == 1", "not author.id", "!(author.favouriteSection != null)", "names.size() > 1",
+      "names.isEmpty()", "names.size", "tags.size() == 2", "codes.length", "map.size", "map.isEmpty", "map.keySet",
+      "map.name == 'xy'", "author.username.length() > 3", "author.username.isEmpty()", "missing == null", "count == 2",
+      "count == 2.0", "count == '2'", "flag", "flag and count", "count or flag", "_parameter != null", "'a' == 'a'",
+      "null" };
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldEvaluateLikeOgnl() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("author", new Author(1, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS));
+    parameter.put("names", new ArrayList<>(Arrays.asList("a", "b")));
+    parameter.put("tags", new HashSet<>(Arrays.asList("x", "y")));
+    parameter.put("codes", new int[] {1, 2, 3});
+    parameter.put("map", new HashMap<>(Collections.singletonMap("name", "xy")));
+    parameter.put("count", 2L);
+    parameter.put("flag", Boolean.TRUE);
+    Map<String, Object> bindings = new DynamicContext(configuration, parameter).getBindings();
+    for (String expression : EXPRESSIONS) {
+      assertThat(ExpressionCompiler.isCompiled(expression)).as(expression).isTrue();
+      assertEquals(OgnlCache.getValue(expression, bindings), ExpressionCompiler.getValue(expression, bindings), expression);
+    }
+  }
+
+  @Test
+  void shouldReadPropertiesOfBeanParameter() {
+    Author author = new Author(1, "cbegin", "******", "cbegin@apache.org", "N/A", Section.NEWS);
+    Map<String, Object> bindings = new DynamicContext(configuration, author).getBindings();
+    assertEquals("cbegin", ExpressionCompiler.getValue("username", bindings));
+    assertEquals(Boolean.TRUE, ExpressionCompiler.getValue("id == 1 and bio != null", bindings));
+    assertEquals(author, ExpressionCompiler.getValue("_parameter", bindings));
+  }
+
+  @Test
+  void shouldFallBackToOgnl() {
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("names", new ArrayList<>(Arrays.asList("a", "b")));
+    parameter.put("author", null);
+    Map<String, Object> bindings = new DynamicContext(configuration, parameter).getBindings();
+    assertThat(ExpressionCompiler.isCompiled("names[0]")).isFalse();
+    assertThat(ExpressionCompiler.isCompiled("names.get(0)")).isFalse();
+    assertThat(ExpressionCompiler.isCompiled("@java.lang.Math@max(1, 2)")).isFalse();
+    assertEquals("a", ExpressionCompiler.getValue("names[0]", bindings));
+    assertEquals(2, ExpressionCompiler.getValue("@java.lang.Math@max(1, 2)", bindings));
+    BuilderException expected = assertThrows(BuilderException.class, () -> OgnlCache.getValue("author.username", bindings));
+    BuilderException actual = assertThrows(BuilderException.class, () -> ExpressionCompiler.getValue("author.username", bindings));
+    assertEquals(expected.getMessage(), actual.getMessage());
+  }
+
+  @Test
+  void shouldReportGetterFailuresLikeOgnlWithoutCallingTheGetterAgain() {
+    FailingBean bean = new FailingBean();
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("bean", bean);
+    Map<String, Object> bindings = new DynamicContext(configuration, parameter).getBindings();
+    BuilderException expected = assertThrows(BuilderException.class, () -> OgnlCache.getValue("bean.name != null", bindings));
+    bean.calls = 0;
+    BuilderException actual = assertThrows(BuilderException.class, () -> ExpressionCompiler.getValue("bean.name != null", bindings));
+    assertEquals(expected.getMessage(), actual.getMessage());
+    assertThat(actual.getCause().getCause()).isInstanceOf(IllegalStateException.class);
+    assertEquals(1, bean.calls);
+  }
+
+  @Test
+  void shouldEvaluateWithContextOfConfiguration() {
+    configuration.setCompileExpressions(true);
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("names", new ArrayList<>(Arrays.asList("a", "b")));
+    DynamicContext context = new DynamicContext(configuration, parameter);
+    ExpressionEvaluator evaluator = new ExpressionEvaluator();
+    assertThat(evaluator.evaluateBoolean("names != null and names.size() > 1", context)).isTrue();
+    assertThat((Iterable<Object>) evaluator.evaluateIterable("names", context)).containsExactly("a", "b");
+  }
+
+  public static class FailingBean {
+    private int calls;
+
+    public String getName() {
+      calls++;
+      throw new IllegalStateException("no name");
+    }
+  }
+
+}